@@ -0,0 +1,67 @@
+package org.folio.rest.benchmark;
+
+import org.folio.rest.jaxrs.model.ResultInfo;
+import org.folio.rest.jaxrs.model.Vendor;
+import org.folio.rest.jaxrs.model.VendorCollection;
+import org.folio.rest.utils.CollectionWriter;
+import org.folio.rest.utils.PagedResults;
+import org.folio.rest.utils.QueryHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the response of {@code GET /vendor-storage/vendors} from a page of records read from the database, with
+ * the stored JSON spliced into the envelope (raw JSON mode) and with the records deserialized (rawJson=false).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VendorCollectionResponseBenchmark {
+  @Param({"10", "100", "1000"})
+  public int pageSize;
+
+  private final Map<String, String> okapiHeaders = Collections.emptyMap();
+  private List<String> rawPage;
+
+  @Setup
+  public void setUp() {
+    rawPage = VendorSamples.page(pageSize);
+  }
+
+  @Benchmark
+  public Response rawJson() throws Exception {
+    PagedResults<Vendor> results = new PagedResults<>();
+    results.setResults(new ArrayList<>());
+    results.setRawResults(rawPage);
+    results.setResultInfo(new ResultInfo().withTotalRecords(pageSize));
+    return QueryHelper.collectionResponse(new VendorCollection(), VendorCollection::setVendors, 0, results, okapiHeaders);
+  }
+
+  /**
+   * Includes the deserialization of the page, which QueryHelper does while reading the rows in this mode.
+   */
+  @Benchmark
+  public Response pojo() throws Exception {
+    List<Vendor> vendors = new ArrayList<>(pageSize);
+    for (String json : rawPage) {
+      vendors.add(CollectionWriter.mapper().readValue(json, Vendor.class));
+    }
+    PagedResults<Vendor> results = new PagedResults<>();
+    results.setResults(vendors);
+    results.setResultInfo(new ResultInfo().withTotalRecords(pageSize));
+    return QueryHelper.collectionResponse(new VendorCollection(), VendorCollection::setVendors, 0, results, okapiHeaders);
+  }
+}
@@ -0,0 +1,72 @@
+package org.folio.rest.benchmark;
+
+import org.folio.rest.jaxrs.model.Vendor;
+import org.folio.rest.jaxrs.model.VendorCollection;
+import org.folio.rest.utils.CollectionWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson deserialization and serialization of vendors with the mapper of {@link CollectionWriter}, as done for
+ * responses with {@code rawJson=false}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VendorJsonBenchmark {
+  @Param({"1", "10", "100"})
+  public int pageSize;
+
+  private final ObjectMapper mapper = CollectionWriter.mapper();
+  private String vendorJson;
+  private Vendor vendor;
+  private String collectionJson;
+  private VendorCollection collection;
+
+  @Setup
+  public void setUp() throws Exception {
+    List<String> page = VendorSamples.page(pageSize);
+    vendorJson = page.get(0);
+    vendor = mapper.readValue(vendorJson, Vendor.class);
+    List<Vendor> vendors = new ArrayList<>();
+    for (String json : page) {
+      vendors.add(mapper.readValue(json, Vendor.class));
+    }
+    collection = new VendorCollection();
+    collection.setVendors(vendors);
+    collection.setTotalRecords(pageSize);
+    collectionJson = mapper.writeValueAsString(collection);
+  }
+
+  @Benchmark
+  public Vendor readVendor() throws Exception {
+    return mapper.readValue(vendorJson, Vendor.class);
+  }
+
+  @Benchmark
+  public String writeVendor() throws Exception {
+    return mapper.writeValueAsString(vendor);
+  }
+
+  @Benchmark
+  public VendorCollection readCollection() throws Exception {
+    return mapper.readValue(collectionJson, VendorCollection.class);
+  }
+
+  @Benchmark
+  public String writeCollection() throws Exception {
+    return mapper.writeValueAsString(collection);
+  }
+}
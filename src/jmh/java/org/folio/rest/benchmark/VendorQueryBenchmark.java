@@ -0,0 +1,50 @@
+package org.folio.rest.benchmark;
+
+import org.folio.rest.utils.ContainmentQuery;
+import org.folio.rest.utils.QueryHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Translation of typical vendor queries into SQL, as done for every collection GET before the database is asked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VendorQueryBenchmark {
+  private static final String TABLE = "vendor";
+
+  @Param({
+    "cql.allRecords=1 sortBy name",
+    "code==AQ-GOBI",
+    "name=gobi*",
+    "vendor_status==Active and name=\"library*\" sortBy name/sort.descending",
+    "accounts.account_no==99999-10 and vendor_status==Active",
+    "(addresses.country==USA or addresses.country==CAN) and language==en-us"
+  })
+  public String query;
+
+  private final ContainmentQuery arrayPaths = new ContainmentQuery(TABLE, "accounts[].account_no", "addresses[].country");
+
+  @Benchmark
+  public String cql2PgJson() throws Exception {
+    return new CQL2PgJSON(TABLE + ".jsonb").cql2pgJson(query);
+  }
+
+  /**
+   * The lookups of VendorsAPI that bypass CQL2PgJSON, run for every query before falling back to it.
+   */
+  @Benchmark
+  public String indexedCondition() throws Exception {
+    String condition = QueryHelper.exactMatch(TABLE, query, "code", "erp_code", "san_code");
+    return condition != null ? condition : arrayPaths.condition(query);
+  }
+}
@@ -0,0 +1,55 @@
+package org.folio.rest.benchmark;
+
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The sample vendors of {@code src/main/resources/data/vendors}, repeated with new ids to fill pages of any size.
+ * The benchmarks run in the project directory, see the jmh profile in pom.xml.
+ */
+final class VendorSamples {
+  private static final Path DIRECTORY = Paths.get("src", "main", "resources", "data", "vendors");
+
+  private VendorSamples() {
+  }
+
+  /**
+   * @return the stored JSON of {@code count} vendors
+   */
+  static List<String> page(int count) {
+    List<String> samples = load();
+    List<String> page = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      page.add(new JsonObject(samples.get(i % samples.size())).put("id", new UUID(0, i).toString()).encode());
+    }
+    return page;
+  }
+
+  private static List<String> load() {
+    try (Stream<Path> files = Files.list(DIRECTORY)) {
+      return files.filter(file -> file.toString().endsWith(".json")).sorted().map(VendorSamples::read)
+        .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String read(Path file) {
+    try {
+      return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -7,19 +7,23 @@ import org.folio.rest.RestVerticle;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.Account;
 import org.folio.rest.jaxrs.model.AccountCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.AccountBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageAccounts;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.TotalRecordsMode;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class AccountsAPI implements VendorStorageAccounts {
@@ -36,37 +40,17 @@ public class AccountsAPI implements VendorStorageAccounts {
 
   @Override
   @Validate
-  public void getVendorStorageAccounts(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageAccounts(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", ACCOUNT_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(ACCOUNT_TABLE, org.folio.rest.jaxrs.model.Account.class, fieldList, cql,
-          true, false, reply -> {
+        QueryHelper.getCollection(vertxContext, tenantId, ACCOUNT_TABLE, org.folio.rest.jaxrs.model.Account.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                AccountCollection collection = new AccountCollection();
-                @SuppressWarnings("unchecked")
-                List<org.folio.rest.jaxrs.model.Account> results = reply.result().getResults();
-                collection.setAccounts(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAccounts.GetVendorStorageAccountsResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new AccountCollection(),
+                  AccountCollection::setAccounts, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -79,6 +63,9 @@ public class AccountsAPI implements VendorStorageAccounts {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAccounts.GetVendorStorageAccountsResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -95,27 +82,61 @@ public class AccountsAPI implements VendorStorageAccounts {
   @Validate
   public void postVendorStorageAccounts(String lang, org.folio.rest.jaxrs.model.Account entity,
                                            Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(ACCOUNT_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageAccountsResponse.class, asyncResultHandler);
+    PgUtil.post(ACCOUNT_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageAccountsResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageAccountsExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(ACCOUNT_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageAccountsExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAccountsBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                                Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(ACCOUNT_TABLE, Account.class, entity.getIds(), AccountCollection::new, AccountCollection::setAccounts, okapiHeaders, vertxContext,
+      PostVendorStorageAccountsBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAccountsBatch(String lang, AccountBatch entity, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(ACCOUNT_TABLE, entity.getAccounts(), okapiHeaders, vertxContext,
+      PostVendorStorageAccountsBatchResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void getVendorStorageAccountsById(String id, String lang, Map<String, String> okapiHeaders,
                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(ACCOUNT_TABLE, Account.class, id, okapiHeaders,vertxContext, GetVendorStorageAccountsByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(ACCOUNT_TABLE, Account.class, id, okapiHeaders,vertxContext, GetVendorStorageAccountsByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageAccountsById(String id, String lang, Map<String, String> okapiHeaders,
                                                  Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(ACCOUNT_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageAccountsByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(ACCOUNT_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageAccountsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void putVendorStorageAccountsById(String id, String lang, org.folio.rest.jaxrs.model.Account entity,
                                               Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(ACCOUNT_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageAccountsByIdResponse.class, asyncResultHandler);
+    PgUtil.put(ACCOUNT_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageAccountsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageAccountsById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(ACCOUNT_TABLE, Account.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageAccountsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 }
@@ -6,20 +6,24 @@ import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.Address;
 import org.folio.rest.jaxrs.model.AddressCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.AddressBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageAddresses;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class AddressesAPI implements VendorStorageAddresses {
@@ -35,37 +39,17 @@ public class AddressesAPI implements VendorStorageAddresses {
 
 
   @Override
-  public void getVendorStorageAddresses(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageAddresses(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", ADDRESS_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(ADDRESS_TABLE, Address.class, fieldList, cql,
-          true, false, reply -> {
+        QueryHelper.getCollection(vertxContext, tenantId, ADDRESS_TABLE, Address.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                AddressCollection collection = new AddressCollection();
-                @SuppressWarnings("unchecked")
-                List<Address> results = reply.result().getResults();
-                collection.setAddresses(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(GetVendorStorageAddressesResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new AddressCollection(),
+                  AddressCollection::setAddresses, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -78,6 +62,9 @@ public class AddressesAPI implements VendorStorageAddresses {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAddresses.GetVendorStorageAddressesResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -94,27 +81,61 @@ public class AddressesAPI implements VendorStorageAddresses {
   @Validate
   public void postVendorStorageAddresses(String lang, org.folio.rest.jaxrs.model.Address entity,
                                         Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(ADDRESS_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageAddressesResponse.class, asyncResultHandler);
+    PgUtil.post(ADDRESS_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageAddressesResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageAddressesExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(ADDRESS_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageAddressesExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAddressesBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                                 Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(ADDRESS_TABLE, Address.class, entity.getIds(), AddressCollection::new, AddressCollection::setAddresses, okapiHeaders, vertxContext,
+      PostVendorStorageAddressesBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAddressesBatch(String lang, AddressBatch entity, Map<String, String> okapiHeaders,
+                                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(ADDRESS_TABLE, entity.getAddresses(), okapiHeaders, vertxContext,
+      PostVendorStorageAddressesBatchResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void getVendorStorageAddressesById(String id, String lang, Map<String, String> okapiHeaders,
                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(ADDRESS_TABLE, Address.class, id, okapiHeaders,vertxContext, GetVendorStorageAddressesByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(ADDRESS_TABLE, Address.class, id, okapiHeaders,vertxContext, GetVendorStorageAddressesByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageAddressesById(String id, String lang, Map<String, String> okapiHeaders,
                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(ADDRESS_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageAddressesByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(ADDRESS_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageAddressesByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void putVendorStorageAddressesById(String id, String lang, org.folio.rest.jaxrs.model.Address entity,
                                            Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(ADDRESS_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageAddressesByIdResponse.class, asyncResultHandler);
+    PgUtil.put(ADDRESS_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageAddressesByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageAddressesById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(ADDRESS_TABLE, Address.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageAddressesByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 }
@@ -6,20 +6,24 @@ import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.Agreement;
 import org.folio.rest.jaxrs.model.AgreementCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.AgreementBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageAgreements;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class AgreementsAPI implements VendorStorageAgreements {
@@ -35,37 +39,17 @@ public class AgreementsAPI implements VendorStorageAgreements {
 
 
   @Override
-  public void getVendorStorageAgreements(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageAgreements(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", AGREEMENT_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(AGREEMENT_TABLE, Agreement.class, fieldList, cql,
-          true, false, reply -> {
+        QueryHelper.getCollection(vertxContext, tenantId, AGREEMENT_TABLE, Agreement.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                AgreementCollection collection = new AgreementCollection();
-                @SuppressWarnings("unchecked")
-                List<Agreement> results = reply.result().getResults();
-                collection.setAgreements(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAgreements.GetVendorStorageAgreementsResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new AgreementCollection(),
+                  AgreementCollection::setAgreements, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -78,6 +62,9 @@ public class AgreementsAPI implements VendorStorageAgreements {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAgreements.GetVendorStorageAgreementsResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -94,27 +81,61 @@ public class AgreementsAPI implements VendorStorageAgreements {
   @Validate
   public void postVendorStorageAgreements(String lang, org.folio.rest.jaxrs.model.Agreement entity,
                                          Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(AGREEMENT_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageAgreementsResponse.class, asyncResultHandler);
+    PgUtil.post(AGREEMENT_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageAgreementsResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageAgreementsExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(AGREEMENT_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageAgreementsExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAgreementsBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                                  Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(AGREEMENT_TABLE, Agreement.class, entity.getIds(), AgreementCollection::new, AgreementCollection::setAgreements, okapiHeaders, vertxContext,
+      PostVendorStorageAgreementsBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAgreementsBatch(String lang, AgreementBatch entity, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(AGREEMENT_TABLE, entity.getAgreements(), okapiHeaders, vertxContext,
+      PostVendorStorageAgreementsBatchResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void getVendorStorageAgreementsById(String id, String lang, Map<String, String> okapiHeaders,
                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(AGREEMENT_TABLE, Agreement.class, id, okapiHeaders,vertxContext, GetVendorStorageAgreementsByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(AGREEMENT_TABLE, Agreement.class, id, okapiHeaders,vertxContext, GetVendorStorageAgreementsByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageAgreementsById(String id, String lang, Map<String, String> okapiHeaders,
                                                Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(AGREEMENT_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageAgreementsByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(AGREEMENT_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageAgreementsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void putVendorStorageAgreementsById(String id, String lang, org.folio.rest.jaxrs.model.Agreement entity,
                                             Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(AGREEMENT_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageAgreementsByIdResponse.class, asyncResultHandler);
+    PgUtil.put(AGREEMENT_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageAgreementsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageAgreementsById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(AGREEMENT_TABLE, Agreement.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageAgreementsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 }
@@ -6,20 +6,24 @@ import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.Alias;
 import org.folio.rest.jaxrs.model.AliasCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.AliasBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageAliases;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class AliasesAPI implements VendorStorageAliases {
@@ -35,37 +39,17 @@ public class AliasesAPI implements VendorStorageAliases {
 
 
   @Override
-  public void getVendorStorageAliases(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageAliases(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", ALIAS_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(ALIAS_TABLE, Alias.class, fieldList, cql,
-          true, false, reply -> {
+        QueryHelper.getCollection(vertxContext, tenantId, ALIAS_TABLE, Alias.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                AliasCollection collection = new AliasCollection();
-                @SuppressWarnings("unchecked")
-                List<Alias> results = reply.result().getResults();
-                collection.setAliases(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAliases.GetVendorStorageAliasesResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new AliasCollection(),
+                  AliasCollection::setAliases, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -78,6 +62,9 @@ public class AliasesAPI implements VendorStorageAliases {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageAliases.GetVendorStorageAliasesResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -94,27 +81,61 @@ public class AliasesAPI implements VendorStorageAliases {
   @Validate
   public void postVendorStorageAliases(String lang, org.folio.rest.jaxrs.model.Alias entity,
                                           Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(ALIAS_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageAliasesResponse.class, asyncResultHandler);
+    PgUtil.post(ALIAS_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageAliasesResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageAliasesExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(ALIAS_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageAliasesExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAliasesBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(ALIAS_TABLE, Alias.class, entity.getIds(), AliasCollection::new, AliasCollection::setAliases, okapiHeaders, vertxContext,
+      PostVendorStorageAliasesBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageAliasesBatch(String lang, AliasBatch entity, Map<String, String> okapiHeaders,
+                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(ALIAS_TABLE, entity.getAliases(), okapiHeaders, vertxContext,
+      PostVendorStorageAliasesBatchResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void getVendorStorageAliasesById(String id, String lang, Map<String, String> okapiHeaders,
                                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(ALIAS_TABLE, Alias.class, id, okapiHeaders,vertxContext, GetVendorStorageAliasesByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(ALIAS_TABLE, Alias.class, id, okapiHeaders,vertxContext, GetVendorStorageAliasesByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageAliasesById(String id, String lang, Map<String, String> okapiHeaders,
                                                 Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(ALIAS_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageAliasesByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(ALIAS_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageAliasesByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void putVendorStorageAliasesById(String id, String lang, org.folio.rest.jaxrs.model.Alias entity,
                                              Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(ALIAS_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageAliasesByIdResponse.class, asyncResultHandler);
+    PgUtil.put(ALIAS_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageAliasesByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageAliasesById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(ALIAS_TABLE, Alias.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageAliasesByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 }
@@ -0,0 +1,22 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.folio.rest.resource.interfaces.InitAPI;
+import org.folio.rest.utils.CacheInvalidation;
+
+/**
+ * Starts listening for changes made by other module instances, see {@link CacheInvalidation}.
+ */
+public class CacheInvalidationInit implements InitAPI {
+
+  @Override
+  public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> resultHandler) {
+    // the database may not be reachable yet, CacheInvalidation keeps trying in the background
+    CacheInvalidation.start(vertx);
+    resultHandler.handle(Future.succeededFuture(true));
+  }
+}
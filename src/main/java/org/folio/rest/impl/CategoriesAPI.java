@@ -6,24 +6,31 @@ import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.Category;
 import org.folio.rest.jaxrs.model.CategoryCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.CategoryBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageCategories;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.CacheInvalidation;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.ReferenceSnapshot;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class CategoriesAPI implements VendorStorageCategories {
   private static final String CATEGORY_TABLE = "category";
+  static final ReferenceSnapshot CATEGORY_SNAPSHOT = CacheInvalidation.register(CATEGORY_TABLE, new ReferenceSnapshot(CATEGORY_TABLE));
 
   private static final Logger log = LoggerFactory.getLogger(CategoriesAPI.class);
   private final Messages messages = Messages.getInstance();
@@ -35,36 +42,17 @@ public class CategoriesAPI implements VendorStorageCategories {
 
 
   @Override
-  public void getVendorStorageCategories(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageCategories(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", CATEGORY_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(CATEGORY_TABLE, Category.class, fieldList, cql,
-          true, false, reply -> {
+        CATEGORY_SNAPSHOT.getCollection(vertxContext, tenantId, Category.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                CategoryCollection collection = new CategoryCollection();
-                List<Category> results = reply.result().getResults();
-                collection.setCategories(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageCategories.GetVendorStorageCategoriesResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new CategoryCollection(),
+                  CategoryCollection::setCategories, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -77,6 +65,9 @@ public class CategoriesAPI implements VendorStorageCategories {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageCategories.GetVendorStorageCategoriesResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -93,27 +84,77 @@ public class CategoriesAPI implements VendorStorageCategories {
   @Validate
   public void postVendorStorageCategories(String lang, org.folio.rest.jaxrs.model.Category entity,
                                        Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(CATEGORY_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageCategoriesResponse.class, asyncResultHandler);
+    PgUtil.post(CATEGORY_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageCategoriesResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageCategoriesExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(CATEGORY_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageCategoriesExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageCategoriesBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                                  Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(CATEGORY_TABLE, Category.class, entity.getIds(), CategoryCollection::new, CategoryCollection::setCategories, okapiHeaders, vertxContext,
+      PostVendorStorageCategoriesBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageCategoriesBatch(String lang, CategoryBatch entity, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(CATEGORY_TABLE, entity.getCategories(), okapiHeaders, vertxContext,
+      PostVendorStorageCategoriesBatchResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
   }
 
   @Override
   @Validate
   public void getVendorStorageCategoriesById(String id, String lang, Map<String, String> okapiHeaders,
                                           Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(CATEGORY_TABLE, Category.class, id, okapiHeaders,vertxContext, GetVendorStorageCategoriesByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(CATEGORY_TABLE, Category.class, id, okapiHeaders,vertxContext, GetVendorStorageCategoriesByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageCategoriesById(String id, String lang, Map<String, String> okapiHeaders,
                                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(CATEGORY_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageCategoriesByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(CATEGORY_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageCategoriesByIdResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
   }
 
   @Override
   @Validate
   public void putVendorStorageCategoriesById(String id, String lang, org.folio.rest.jaxrs.model.Category entity,
                                           Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(CATEGORY_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageCategoriesByIdResponse.class, asyncResultHandler);
+    PgUtil.put(CATEGORY_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageCategoriesByIdResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageCategoriesById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(CATEGORY_TABLE, Category.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageCategoriesByIdResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
+  }
+
+  /**
+   * @return handler dropping the in-memory copy of the tenant before passing the result of a write on
+   */
+  private static Handler<AsyncResult<Response>> invalidating(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    return reply -> {
+      CATEGORY_SNAPSHOT.invalidate(TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT)), null);
+      asyncResultHandler.handle(reply);
+    };
   }
 }
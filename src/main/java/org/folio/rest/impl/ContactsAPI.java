@@ -6,20 +6,24 @@ import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.Contact;
 import org.folio.rest.jaxrs.model.ContactCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.ContactBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageContacts;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class ContactsAPI implements VendorStorageContacts {
@@ -35,37 +39,17 @@ public class ContactsAPI implements VendorStorageContacts {
 
 
   @Override
-  public void getVendorStorageContacts(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageContacts(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", CONTACT_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(CONTACT_TABLE, Contact.class, fieldList, cql,
-          true, false, reply -> {
+        QueryHelper.getCollection(vertxContext, tenantId, CONTACT_TABLE, Contact.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                ContactCollection collection = new ContactCollection();
-                @SuppressWarnings("unchecked")
-                List<Contact> results = reply.result().getResults();
-                collection.setContacts(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageContacts.GetVendorStorageContactsResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new ContactCollection(),
+                  ContactCollection::setContacts, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -78,6 +62,9 @@ public class ContactsAPI implements VendorStorageContacts {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageContacts.GetVendorStorageContactsResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -94,27 +81,61 @@ public class ContactsAPI implements VendorStorageContacts {
   @Validate
   public void postVendorStorageContacts(String lang, org.folio.rest.jaxrs.model.Contact entity,
                                           Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(CONTACT_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageContactsResponse.class, asyncResultHandler);
+    PgUtil.post(CONTACT_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageContactsResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageContactsExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(CONTACT_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageContactsExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageContactsBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                                Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(CONTACT_TABLE, Contact.class, entity.getIds(), ContactCollection::new, ContactCollection::setContacts, okapiHeaders, vertxContext,
+      PostVendorStorageContactsBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageContactsBatch(String lang, ContactBatch entity, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(CONTACT_TABLE, entity.getContacts(), okapiHeaders, vertxContext,
+      PostVendorStorageContactsBatchResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void getVendorStorageContactsById(String id, String lang, Map<String, String> okapiHeaders,
                                              Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(CONTACT_TABLE, Contact.class, id, okapiHeaders,vertxContext, GetVendorStorageContactsByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(CONTACT_TABLE, Contact.class, id, okapiHeaders,vertxContext, GetVendorStorageContactsByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageContactsById(String id, String lang, Map<String, String> okapiHeaders,
                                                 Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(CONTACT_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageContactsByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(CONTACT_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageContactsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 
   @Override
   @Validate
   public void putVendorStorageContactsById(String id, String lang, org.folio.rest.jaxrs.model.Contact entity,
                                              Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(CONTACT_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageContactsByIdResponse.class, asyncResultHandler);
+    PgUtil.put(CONTACT_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageContactsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageContactsById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(CONTACT_TABLE, Contact.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageContactsByIdResponse.class, ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler));
   }
 }
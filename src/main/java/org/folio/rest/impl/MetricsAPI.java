@@ -0,0 +1,30 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.jaxrs.resource.VendorStorageMetrics;
+import org.folio.rest.utils.Metrics;
+
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.Map;
+
+public class MetricsAPI implements VendorStorageMetrics {
+  private static final Logger log = LoggerFactory.getLogger(MetricsAPI.class);
+
+  @Override
+  public void getVendorStorageMetrics(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+                                      Context vertxContext) {
+    try {
+      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(GetVendorStorageMetricsResponse
+        .respond200WithTextPlain(Metrics.scrape(Collections.singletonList(VendorsAPI.VENDOR_CACHE)))));
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(GetVendorStorageMetricsResponse
+        .respond500WithTextPlain(e.getMessage())));
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.folio.rest.resource.interfaces.InitAPI;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.ModuleArgs;
+import org.folio.rest.utils.SlowQueryLog;
+
+/**
+ * Reads the numeric module arguments, see {@link ModuleArgs}. A malformed value fails the deployment.
+ */
+public class ModuleArgsInit implements InitAPI {
+
+  @Override
+  public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> resultHandler) {
+    try {
+      ExportHelper.configure();
+      SlowQueryLog.configure();
+    } catch (IllegalArgumentException e) {
+      resultHandler.handle(Future.failedFuture(e));
+      return;
+    }
+    resultHandler.handle(Future.succeededFuture(true));
+  }
+}
@@ -0,0 +1,22 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.folio.rest.resource.interfaces.InitAPI;
+import org.folio.rest.utils.ReadReplica;
+
+/**
+ * Connects to the read replica if one is configured, see {@link ReadReplica}.
+ */
+public class ReadReplicaInit implements InitAPI {
+
+  @Override
+  public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> resultHandler) {
+    // until the replica answers the first poll all reads go to the primary
+    ReadReplica.start(vertx);
+    resultHandler.handle(Future.succeededFuture(true));
+  }
+}
@@ -11,9 +11,11 @@ import io.vertx.core.logging.LoggerFactory;
 import java.util.List;
 import java.util.Map;
 import javax.ws.rs.core.Response;
+import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.Parameter;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.tools.utils.TenantLoading;
+import org.folio.rest.tools.utils.TenantTool;
 
 public class TenantReferenceAPI extends TenantAPI {
   private static final Logger log = LoggerFactory.getLogger(TenantReferenceAPI.class);
@@ -44,10 +46,12 @@ public class TenantReferenceAPI extends TenantAPI {
                 .respond500WithTextPlain(res1.cause().getLocalizedMessage())));
               return;
             }
+            loadSnapshots(vertx, headers);
             hndlr.handle(io.vertx.core.Future.succeededFuture(PostTenantResponse
               .respond201WithApplicationJson("")));
           });
       } else {
+        loadSnapshots(vertx, headers);
         hndlr.handle(res);
         return;
       }
@@ -55,6 +59,15 @@ public class TenantReferenceAPI extends TenantAPI {
 
   }
 
+  /**
+   * Loads the in-memory copies of the reference tables, which may have changed by the tenant upgrade.
+   */
+  private void loadSnapshots(Vertx vertx, Map<String, String> headers) {
+    String tenantId = TenantTool.calculateTenantId(headers.get(RestVerticle.OKAPI_HEADER_TENANT));
+    CategoriesAPI.CATEGORY_SNAPSHOT.reload(vertx, tenantId);
+    VendorTypesAPI.VENDOR_TYPE_SNAPSHOT.reload(vertx, tenantId);
+  }
+
   private boolean isLoadSample(TenantAttributes tenantAttributes) {
     // if a system parameter is passed from command line, ex: loadSample=true
     // that value is considered,Priority of Parameters:
@@ -80,6 +93,9 @@ public class TenantReferenceAPI extends TenantAPI {
   @Override
   public void deleteTenant(Map<String, String> headers, Handler<AsyncResult<Response>> hndlr, Context cntxt) {
     log.info("deleteTenant");
+    String tenantId = TenantTool.calculateTenantId(headers.get(RestVerticle.OKAPI_HEADER_TENANT));
+    CategoriesAPI.CATEGORY_SNAPSHOT.invalidate(tenantId, null);
+    VendorTypesAPI.VENDOR_TYPE_SNAPSHOT.invalidate(tenantId, null);
     super.deleteTenant(headers, hndlr, cntxt);
   }
 }
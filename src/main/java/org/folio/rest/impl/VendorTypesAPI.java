@@ -6,24 +6,31 @@ import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
 import org.folio.rest.jaxrs.model.VendorType;
 import org.folio.rest.jaxrs.model.VendorTypeCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.VendorTypeBatch;
 import org.folio.rest.jaxrs.resource.VendorStorageVendorTypes;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.CacheInvalidation;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.ReferenceSnapshot;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class VendorTypesAPI implements VendorStorageVendorTypes {
   private static final String VENDOR_TYPE_TABLE = "vendor_type";
+  static final ReferenceSnapshot VENDOR_TYPE_SNAPSHOT = CacheInvalidation.register(VENDOR_TYPE_TABLE, new ReferenceSnapshot(VENDOR_TYPE_TABLE));
 
   private static final Logger log = LoggerFactory.getLogger(VendorTypesAPI.class);
   private final Messages messages = Messages.getInstance();
@@ -35,36 +42,17 @@ public class VendorTypesAPI implements VendorStorageVendorTypes {
 
 
   @Override
-  public void getVendorStorageVendorTypes(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageVendorTypes(String query, int offset, int limit, String totalRecords, String cursor, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", VENDOR_TYPE_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
-
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(VENDOR_TYPE_TABLE, VendorType.class, fieldList, cql,
-          true, false, reply -> {
+        VENDOR_TYPE_SNAPSHOT.getCollection(vertxContext, tenantId, VendorType.class, query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                VendorTypeCollection collection = new VendorTypeCollection();
-                List<VendorType> results = reply.result().getResults();
-                collection.setVendorTypes(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageVendorTypes.GetVendorStorageVendorTypesResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new VendorTypeCollection(),
+                  VendorTypeCollection::setVendorTypes, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -77,6 +65,9 @@ public class VendorTypesAPI implements VendorStorageVendorTypes {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageVendorTypes.GetVendorStorageVendorTypesResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -93,27 +84,77 @@ public class VendorTypesAPI implements VendorStorageVendorTypes {
   @Validate
   public void postVendorStorageVendorTypes(String lang, org.folio.rest.jaxrs.model.VendorType entity,
                                         Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(VENDOR_TYPE_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageVendorTypesResponse.class, asyncResultHandler);
+    PgUtil.post(VENDOR_TYPE_TABLE, entity, okapiHeaders, vertxContext,
+      PostVendorStorageVendorTypesResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageVendorTypesExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                                Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(VENDOR_TYPE_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageVendorTypesExportResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageVendorTypesBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                                   Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(VENDOR_TYPE_TABLE, VendorType.class, entity.getIds(), VendorTypeCollection::new, VendorTypeCollection::setVendorTypes, okapiHeaders, vertxContext,
+      PostVendorStorageVendorTypesBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageVendorTypesBatch(String lang, VendorTypeBatch entity, Map<String, String> okapiHeaders,
+                                                Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(VENDOR_TYPE_TABLE, entity.getVendorTypes(), okapiHeaders, vertxContext,
+      PostVendorStorageVendorTypesBatchResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
   }
 
   @Override
   @Validate
   public void getVendorStorageVendorTypesById(String id, String lang, Map<String, String> okapiHeaders,
                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(VENDOR_TYPE_TABLE, VendorType.class, id, okapiHeaders,vertxContext, GetVendorStorageVendorTypesByIdResponse.class, asyncResultHandler);
+    QueryHelper.getById(VENDOR_TYPE_TABLE, VendorType.class, id, okapiHeaders,vertxContext, GetVendorStorageVendorTypesByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageVendorTypesById(String id, String lang, Map<String, String> okapiHeaders,
                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(VENDOR_TYPE_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageVendorTypesByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(VENDOR_TYPE_TABLE, id, okapiHeaders, vertxContext,
+      DeleteVendorStorageVendorTypesByIdResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
   }
 
   @Override
   @Validate
   public void putVendorStorageVendorTypesById(String id, String lang, org.folio.rest.jaxrs.model.VendorType entity,
                                            Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(VENDOR_TYPE_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageVendorTypesByIdResponse.class, asyncResultHandler);
+    PgUtil.put(VENDOR_TYPE_TABLE, entity, id, okapiHeaders, vertxContext,
+      PutVendorStorageVendorTypesByIdResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageVendorTypesById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                                Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(VENDOR_TYPE_TABLE, VendorType.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageVendorTypesByIdResponse.class, invalidating(okapiHeaders,
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler)));
+  }
+
+  /**
+   * @return handler dropping the in-memory copy of the tenant before passing the result of a write on
+   */
+  private static Handler<AsyncResult<Response>> invalidating(Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    return reply -> {
+      VENDOR_TYPE_SNAPSHOT.invalidate(TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT)), null);
+      asyncResultHandler.handle(reply);
+    };
   }
 }
@@ -4,26 +4,52 @@ import io.vertx.core.*;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.ExpandedVendor;
 import org.folio.rest.jaxrs.model.Vendor;
 import org.folio.rest.jaxrs.model.VendorCollection;
+import org.folio.rest.jaxrs.model.IdList;
+import org.folio.rest.jaxrs.model.MergePatch;
+import org.folio.rest.jaxrs.model.VendorBatch;
+import org.folio.rest.jaxrs.model.VendorSuggestionCollection;
 import org.folio.rest.jaxrs.resource.VendorStorageVendors;
-import org.folio.rest.persist.Criteria.Limit;
-import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.PostgresClient;
-import org.folio.rest.persist.cql.CQLWrapper;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
-import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.utils.BatchHelper;
+import org.folio.rest.utils.CacheInvalidation;
+import org.folio.rest.utils.ContainmentQuery;
+import org.folio.rest.utils.ExpandHelper;
+import org.folio.rest.utils.FullTextSearch;
+import org.folio.rest.utils.ExportHelper;
+import org.folio.rest.utils.PatchHelper;
+import org.folio.rest.utils.QueryHelper;
+import org.folio.rest.utils.ReadReplica;
+import org.folio.rest.utils.RecordCache;
+import org.folio.rest.utils.SuggestionIndex;
+import org.folio.rest.utils.TotalRecordsMode;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.persist.PgUtil;
 
 import javax.ws.rs.core.Response;
-import java.util.List;
 import java.util.Map;
 
 public class VendorsAPI implements VendorStorageVendors {
   private static final String VENDOR_TABLE = "vendor";
+  /** vendors by id, for mod-orders and mod-invoice resolving the same vendors over and over */
+  static final RecordCache VENDOR_CACHE = CacheInvalidation.register(VENDOR_TABLE,
+    RecordCache.fromModuleArgs("vendor", 16 * 1024 * 1024, 60));
+  /** fields with a btree index in schema.json, used for exact match lookups like code==GOBI */
+  private static final String[] INDEXED_CODES = {"code", "erp_code", "san_code"};
+  /** codes and numbers inside the arrays of a vendor, with indexes in array_path_indexes.sql; no free text */
+  private static final ContainmentQuery VENDOR_ARRAY_PATHS = new ContainmentQuery(VENDOR_TABLE,
+    "accounts[].account_no", "accounts[].library_code", "contacts[]", "phone_numbers[].phone_number",
+    "vendor_currencies[]");
+  /** name, code, aliases and description, see vendor_search.sql */
+  private static final FullTextSearch VENDOR_SEARCH = new FullTextSearch(VENDOR_TABLE, "vendor_search_text");
+  /** code and name prefixes for the vendor pickers */
+  static final SuggestionIndex VENDOR_SUGGESTIONS = CacheInvalidation.register(VENDOR_TABLE,
+    new SuggestionIndex(VENDOR_TABLE, "vendor"));
 
   private static final Logger log = LoggerFactory.getLogger(VendorsAPI.class);
   private final Messages messages = Messages.getInstance();
@@ -34,37 +60,26 @@ public class VendorsAPI implements VendorStorageVendors {
   }
 
   @Override
-  public void getVendorStorageVendors(String query, int offset, int limit, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getVendorStorageVendors(String query, int offset, int limit, String totalRecords, String cursor, String expand, String search, String lang, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     vertxContext.runOnContext((Void v) -> {
       try {
         String tenantId = TenantTool.calculateTenantId( okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT) );
 
-        String[] fieldList = {"*"};
-        CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", VENDOR_TABLE));
-        CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
-          .setLimit(new Limit(limit))
-          .setOffset(new Offset(offset));
+        String condition = VENDOR_SEARCH.condition(tenantId, search, query);
+        if (condition == null) {
+          condition = QueryHelper.exactMatch(VENDOR_TABLE, query, INDEXED_CODES);
+        }
+        if (condition == null) {
+          condition = VENDOR_ARRAY_PATHS.condition(query);
+        }
 
-        PostgresClient.getInstance(vertxContext.owner(), tenantId).get(VENDOR_TABLE, Vendor.class, fieldList, cql,
-          true, false, reply -> {
+        QueryHelper.getCollection(vertxContext, tenantId, VENDOR_TABLE, vendorClass(expand), query, offset, limit,
+          TotalRecordsMode.fromValue(totalRecords), cursor, ExpandHelper.vendorExpression(tenantId, VENDOR_TABLE, expand),
+          condition, VENDOR_SEARCH.order(tenantId, search), okapiHeaders, reply -> {
             try {
               if(reply.succeeded()){
-                VendorCollection collection = new VendorCollection();
-                @SuppressWarnings("unchecked")
-                List<Vendor> results = reply.result().getResults();
-                collection.setVendors(results);
-                Integer totalRecords = reply.result().getResultInfo().getTotalRecords();
-                collection.setTotalRecords(totalRecords);
-                Integer first = 0;
-                Integer last = 0;
-                if (!results.isEmpty()) {
-                  first = offset + 1;
-                  last = offset + results.size();
-                }
-                collection.setFirst(first);
-                collection.setLast(last);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageVendors.GetVendorStorageVendorsResponse
-                  .respond200WithApplicationJson(collection)));
+                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(QueryHelper.collectionResponse(new VendorCollection(),
+                  VendorCollection::setVendors, offset, reply.result(), okapiHeaders)));
               }
               else{
                 log.error(reply.cause().getMessage(), reply.cause());
@@ -77,6 +92,9 @@ public class VendorsAPI implements VendorStorageVendors {
                 .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
             }
           });
+      } catch (IllegalArgumentException e) {
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(VendorStorageVendors.GetVendorStorageVendorsResponse
+          .respond400WithTextPlain(e.getMessage())));
       } catch (Exception e) {
         log.error(e.getMessage(), e);
         String message = messages.getMessage(lang, MessageConsts.InternalServerError);
@@ -93,27 +111,108 @@ public class VendorsAPI implements VendorStorageVendors {
   @Validate
   public void postVendorStorageVendors(String lang, org.folio.rest.jaxrs.model.Vendor entity,
                                         Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.post(VENDOR_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageVendorsResponse.class, asyncResultHandler);
+    PgUtil.post(VENDOR_TABLE, entity, okapiHeaders, vertxContext, PostVendorStorageVendorsResponse.class, reply -> {
+      invalidate(okapiHeaders, entity.getId());
+      ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler).handle(reply);
+    });
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageVendorsExport(String query, String cursor, String lang, Map<String, String> okapiHeaders,
+                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    ExportHelper.exportNdjson(VENDOR_TABLE, query, cursor, okapiHeaders, vertxContext, GetVendorStorageVendorsExportResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
-  public void getVendorStorageVendorsById(String id, String lang, Map<String, String> okapiHeaders,
+  public void getVendorStorageVendorsSuggest(String prefix, int limit, String lang, Map<String, String> okapiHeaders,
+                                             Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    VENDOR_SUGGESTIONS.suggest(vertxContext, tenantId, prefix, limit, reply -> {
+      if (reply.failed()) {
+        log.error(reply.cause().getMessage(), reply.cause());
+        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(GetVendorStorageVendorsSuggestResponse
+          .respond500WithTextPlain(messages.getMessage(lang, MessageConsts.InternalServerError))));
+        return;
+      }
+      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(GetVendorStorageVendorsSuggestResponse
+        .respond200WithApplicationJson(new VendorSuggestionCollection().withSuggestions(reply.result()))));
+    });
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageVendorsBatchGet(String lang, IdList entity, Map<String, String> okapiHeaders,
+                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    QueryHelper.getByIds(VENDOR_TABLE, Vendor.class, entity.getIds(), VendorCollection::new, VendorCollection::setVendors, okapiHeaders, vertxContext,
+      PostVendorStorageVendorsBatchGetResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  @Validate
+  public void postVendorStorageVendorsBatch(String lang, VendorBatch entity, Map<String, String> okapiHeaders,
+                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    BatchHelper.upsert(VENDOR_TABLE, entity.getVendors(), okapiHeaders, vertxContext,
+      PostVendorStorageVendorsBatchResponse.class, reply -> {
+        entity.getVendors().forEach(vendor -> invalidate(okapiHeaders, vendor.getId()));
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler).handle(reply);
+      });
+  }
+
+  @Override
+  @Validate
+  public void getVendorStorageVendorsById(String id, String expand, String lang, Map<String, String> okapiHeaders,
                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.getById(VENDOR_TABLE, Vendor.class, id, okapiHeaders,vertxContext, GetVendorStorageVendorsByIdResponse.class, asyncResultHandler);
+    String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+    QueryHelper.getById(VENDOR_TABLE, vendorClass(expand), id, VENDOR_CACHE, ExpandHelper.vendorExpression(tenantId, VENDOR_TABLE, expand),
+      okapiHeaders, vertxContext, GetVendorStorageVendorsByIdResponse.class, asyncResultHandler);
   }
 
   @Override
   @Validate
   public void deleteVendorStorageVendorsById(String id, String lang, Map<String, String> okapiHeaders,
                                               Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.deleteById(VENDOR_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageVendorsByIdResponse.class, asyncResultHandler);
+    PgUtil.deleteById(VENDOR_TABLE, id, okapiHeaders, vertxContext, DeleteVendorStorageVendorsByIdResponse.class, reply -> {
+      invalidate(okapiHeaders, id);
+      ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler).handle(reply);
+    });
   }
 
   @Override
   @Validate
   public void putVendorStorageVendorsById(String id, String lang, org.folio.rest.jaxrs.model.Vendor entity,
                                            Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    PgUtil.put(VENDOR_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageVendorsByIdResponse.class, asyncResultHandler);
+    PgUtil.put(VENDOR_TABLE, entity, id, okapiHeaders, vertxContext, PutVendorStorageVendorsByIdResponse.class, reply -> {
+      invalidate(okapiHeaders, id);
+      ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler).handle(reply);
+    });
+  }
+
+  @Override
+  @Validate
+  public void patchVendorStorageVendorsById(String id, String lang, MergePatch entity, Map<String, String> okapiHeaders,
+                                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    PatchHelper.patchById(VENDOR_TABLE, Vendor.class, id, entity.getAdditionalProperties(), okapiHeaders, vertxContext,
+      PatchVendorStorageVendorsByIdResponse.class, reply -> {
+        invalidate(okapiHeaders, id);
+        ReadReplica.afterWrite(okapiHeaders, vertxContext, asyncResultHandler).handle(reply);
+      });
+  }
+
+  private static void invalidate(Map<String, String> okapiHeaders, String id) {
+    if (id != null) {
+      String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+      VENDOR_CACHE.invalidate(tenantId, id);
+      VENDOR_SUGGESTIONS.invalidate(tenantId, id);
+    }
+  }
+
+  /**
+   * @return the class to read vendors into, with the properties added by {@link ExpandHelper} if any are requested
+   */
+  @SuppressWarnings("unchecked")
+  private static Class<Vendor> vendorClass(String expand) {
+    return (Class<Vendor>) (expand == null || expand.trim().isEmpty() ? Vendor.class : ExpandedVendor.class);
   }
 }
@@ -0,0 +1,32 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.VertxOptions;
+import io.vertx.core.metrics.MetricsOptions;
+import org.folio.rest.RestLauncher;
+import org.folio.rest.utils.Compression;
+import org.folio.rest.utils.HttpMetricsFactory;
+
+/**
+ * Starts the module like {@link RestLauncher} with {@link HttpMetricsFactory} installed, whether or not
+ * {@code -Dvertx.metrics.options.enabled=true} is given: the factory records the requests in the metrics and is the
+ * only access to the options of the HTTP server that RMB creates, which {@link Compression} sets.
+ */
+public class VendorsLauncher extends RestLauncher {
+
+  public static void main(String[] args) {
+    new VendorsLauncher().dispatch(args);
+  }
+
+  @Override
+  public void beforeStartingVertx(VertxOptions options) {
+    super.beforeStartingVertx(options);
+    options(options);
+  }
+
+  /**
+   * Installs {@link HttpMetricsFactory} in the options, also for tests that start Vert.x themselves.
+   */
+  public static VertxOptions options(VertxOptions options) {
+    return options.setMetricsOptions(new MetricsOptions().setEnabled(true).setFactory(new HttpMetricsFactory()));
+  }
+}
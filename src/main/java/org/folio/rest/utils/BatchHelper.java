@@ -0,0 +1,200 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.sql.SQLConnection;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.BatchItemResult;
+import org.folio.rest.jaxrs.model.BatchResult;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.ObjectMapperTool;
+import org.folio.rest.tools.utils.TenantTool;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk create/update of records.
+ * <p>
+ * All records of a request are written in one transaction with one multi-row
+ * {@code INSERT ... ON CONFLICT (_id) DO UPDATE} statement per chunk of {@value #CHUNK_SIZE} records, so a batch
+ * either succeeds completely or leaves the table unchanged.
+ */
+public class BatchHelper {
+  private static final Logger log = LoggerFactory.getLogger(BatchHelper.class);
+
+  static final int CHUNK_SIZE = 500;
+  private static final String RESPOND_200 = "respond200WithApplicationJson";
+  private static final String RESPOND_400 = "respond400WithTextPlain";
+  private static final String RESPOND_500 = "respond500WithTextPlain";
+
+  private BatchHelper() {
+  }
+
+  /**
+   * Inserts the entities, replacing the stored record for every id that already exists. Entities without an id get
+   * a random one; metadata is set the same way RMB does it for single POST/PUT requests.
+   *
+   * @param responseClass the generated response class providing respond200WithApplicationJson,
+   *                      respond400WithTextPlain and respond500WithTextPlain
+   */
+  public static <T> void upsert(String table, List<T> entities, Map<String, String> okapiHeaders, Context vertxContext,
+      Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    vertxContext.runOnContext(v -> {
+      List<String> ids = new ArrayList<>(entities.size());
+      List<String> jsons = new ArrayList<>(entities.size());
+      try {
+        Metadata metadata = metadata(okapiHeaders);
+        Set<String> seen = new HashSet<>();
+        for (T entity : entities) {
+          String id = prepare(entity, metadata);
+          if (!seen.add(id)) {
+            respond(responseClass, RESPOND_400, "Duplicate id in batch: " + id, asyncResultHandler);
+            return;
+          }
+          ids.add(id);
+          jsons.add(ObjectMapperTool.getMapper().writeValueAsString(entity));
+        }
+      } catch (IllegalArgumentException e) {
+        respond(responseClass, RESPOND_400, e.getMessage(), asyncResultHandler);
+        return;
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        respond(responseClass, RESPOND_500, e.getMessage(), asyncResultHandler);
+        return;
+      }
+      if (ids.isEmpty()) {
+        respond(responseClass, RESPOND_200, new BatchResult().withTotalRecords(0), asyncResultHandler);
+        return;
+      }
+
+      String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+      String fullTable = PostgresClient.convertToPsqlStandard(tenantId) + "." + table;
+      PostgresClient.getInstance(vertxContext.owner(), tenantId).getClient().getConnection(conn -> {
+        if (conn.failed()) {
+          respond(responseClass, RESPOND_500, conn.cause().getMessage(), asyncResultHandler);
+          return;
+        }
+        SQLConnection connection = conn.result();
+        connection.setAutoCommit(false, tx -> {
+          if (tx.failed()) {
+            connection.close();
+            respond(responseClass, RESPOND_500, tx.cause().getMessage(), asyncResultHandler);
+            return;
+          }
+          writeChunk(connection, fullTable, ids, jsons, 0, new HashMap<>(), responseClass, asyncResultHandler);
+        });
+      });
+    });
+  }
+
+  private static void writeChunk(SQLConnection connection, String fullTable, List<String> ids, List<String> jsons,
+      int from, Map<String, Boolean> inserted, Class<? extends ResponseDelegate> responseClass,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    int to = Math.min(from + CHUNK_SIZE, ids.size());
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(fullTable).append(" (_id, jsonb) VALUES ");
+    JsonArray params = new JsonArray();
+    for (int i = from; i < to; i++) {
+      sql.append(i == from ? "" : ", ").append("(?::uuid, ?::jsonb)");
+      params.add(ids.get(i)).add(jsons.get(i));
+    }
+    // xmax is 0 for a freshly inserted row version and the locking transaction's id for an updated one
+    sql.append(" ON CONFLICT (_id) DO UPDATE SET jsonb = EXCLUDED.jsonb RETURNING _id::text, (xmax = 0) AS inserted");
+
+    connection.queryWithParams(sql.toString(), params, reply -> {
+      if (reply.failed()) {
+        log.error(reply.cause().getMessage(), reply.cause());
+        connection.rollback(done -> {
+          connection.close();
+          respond(responseClass, RESPOND_400, reply.cause().getMessage(), asyncResultHandler);
+        });
+        return;
+      }
+      for (JsonArray row : reply.result().getResults()) {
+        inserted.put(row.getString(0), row.getBoolean(1));
+      }
+      if (to < ids.size()) {
+        writeChunk(connection, fullTable, ids, jsons, to, inserted, responseClass, asyncResultHandler);
+        return;
+      }
+      connection.commit(done -> {
+        connection.close();
+        if (done.failed()) {
+          log.error(done.cause().getMessage(), done.cause());
+          respond(responseClass, RESPOND_500, done.cause().getMessage(), asyncResultHandler);
+          return;
+        }
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+          results.add(new BatchItemResult().withId(id)
+            .withStatus(Boolean.TRUE.equals(inserted.get(id)) ? BatchItemResult.Status.CREATED : BatchItemResult.Status.UPDATED));
+        }
+        respond(responseClass, RESPOND_200, new BatchResult().withResults(results).withTotalRecords(results.size()),
+          asyncResultHandler);
+      });
+    });
+  }
+
+  /**
+   * Sets id and metadata of the entity.
+   *
+   * @return the id of the entity
+   * @throws IllegalArgumentException if the entity has an id that is not a UUID
+   */
+  private static String prepare(Object entity, Metadata metadata) throws ReflectiveOperationException {
+    Class<?> clazz = entity.getClass();
+    String id = (String) clazz.getMethod("getId").invoke(entity);
+    if (id == null) {
+      id = UUID.randomUUID().toString();
+      clazz.getMethod("setId", String.class).invoke(entity, id);
+    } else {
+      try {
+        id = UUID.fromString(id).toString();
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Invalid UUID in batch: " + id);
+      }
+    }
+    try {
+      clazz.getMethod("setMetadata", Metadata.class).invoke(entity, metadata);
+    } catch (NoSuchMethodException e) {
+      // schema without metadata
+    }
+    return id;
+  }
+
+  private static Metadata metadata(Map<String, String> okapiHeaders) {
+    Date now = new Date();
+    String userId = okapiHeaders.get(RestVerticle.OKAPI_USERID_HEADER);
+    return new Metadata()
+      .withCreatedDate(now)
+      .withUpdatedDate(now)
+      .withCreatedByUserId(userId)
+      .withUpdatedByUserId(userId);
+  }
+
+  private static void respond(Class<? extends ResponseDelegate> responseClass, String methodName, Object entity,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    try {
+      asyncResultHandler.handle(Future.succeededFuture(QueryHelper.respond(responseClass, methodName, entity)));
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.failedFuture(e));
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.folio.rest.utils;
+
+import com.github.mauricio.async.db.postgresql.PostgreSQLConnection;
+import com.github.mauricio.async.db.postgresql.messages.backend.NotificationResponse;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.sql.SQLConnection;
+import org.folio.rest.persist.PostgresClient;
+import scala.runtime.AbstractFunction1;
+import scala.runtime.BoxedUnit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Evicts records changed by any module instance from the in-memory caches of this instance.
+ * <p>
+ * A trigger on every table (see {@code notify_changes.sql}) sends a notification with the tenant id, table and record
+ * id on the {@value #CHANNEL} channel when a record is inserted, updated or deleted. Postgres delivers it to all
+ * connections listening on the channel once the transaction commits, whichever instance did the write. This instance
+ * keeps one connection of the pool for {@code LISTEN}; when it is lost, all caches are cleared because notifications
+ * may have been missed, and the connection is opened again.
+ */
+public class CacheInvalidation {
+  private static final Logger log = LoggerFactory.getLogger(CacheInvalidation.class);
+
+  static final String CHANNEL = "mod_vendors_changes";
+  private static final long CHECK_INTERVAL_MILLIS = 5000;
+
+  private static final Map<String, List<Listener>> CACHES = new ConcurrentHashMap<>();
+  private static volatile PostgreSQLConnection listener;
+
+  /**
+   * In-memory copy of records of a table.
+   */
+  public interface Listener {
+    /**
+     * The record with the id was inserted, updated or deleted.
+     */
+    void invalidate(String tenantId, String id);
+
+    /**
+     * Changes may have been missed.
+     */
+    void invalidateAll();
+  }
+
+  private CacheInvalidation() {
+  }
+
+  /**
+   * Registers the cache of a table for eviction of changed records.
+   *
+   * @return the cache
+   */
+  public static <L extends Listener> L register(String table, L cache) {
+    CACHES.computeIfAbsent(table, t -> new CopyOnWriteArrayList<>()).add(cache);
+    return cache;
+  }
+
+  /**
+   * Starts listening and checks the listening connection periodically.
+   */
+  public static void start(Vertx vertx) {
+    listen(vertx);
+    vertx.setPeriodic(CHECK_INTERVAL_MILLIS, id -> {
+      PostgreSQLConnection connection = listener;
+      if (connection != null && !connection.isConnected()) {
+        log.warn("Lost the connection listening on " + CHANNEL + ", clearing caches");
+        listener = null;
+        CACHES.values().forEach(caches -> caches.forEach(Listener::invalidateAll));
+        listen(vertx);
+      } else if (connection == null) {
+        listen(vertx);
+      }
+    });
+  }
+
+  private static synchronized void listen(Vertx vertx) {
+    if (listener != null) {
+      return;
+    }
+    PostgresClient.getInstance(vertx).getClient().getConnection(conn -> {
+      if (conn.failed()) {
+        log.warn("Cannot listen on " + CHANNEL + ": " + conn.cause().getMessage());
+        return;
+      }
+      SQLConnection connection = conn.result();
+      PostgreSQLConnection postgres = connection.unwrap();
+      postgres.registerNotifyListener(new AbstractFunction1<NotificationResponse, BoxedUnit>() {
+        @Override
+        public BoxedUnit apply(NotificationResponse notification) {
+          evict(notification.payload());
+          return BoxedUnit.UNIT;
+        }
+      });
+      connection.execute("LISTEN " + CHANNEL, reply -> {
+        if (reply.failed()) {
+          log.warn("Cannot listen on " + CHANNEL + ": " + reply.cause().getMessage());
+          connection.close();
+          return;
+        }
+        listener = postgres;
+        log.info("Listening on " + CHANNEL);
+      });
+    });
+  }
+
+  static void evict(String payload) {
+    try {
+      JsonObject change = new JsonObject(payload);
+      List<Listener> caches = CACHES.get(change.getString("table"));
+      if (caches == null) {
+        return;
+      }
+      // triggers created before the tenant was added to the payload only send the lower case schema
+      String tenantId = change.getString("tenant", tenantId(change.getString("schema")));
+      for (Listener cache : caches) {
+        cache.invalidate(tenantId, change.getString("id"));
+      }
+    } catch (Exception e) {
+      log.warn("Invalid change notification " + payload, e);
+    }
+  }
+
+  /**
+   * @return the tenant of a schema named by {@link PostgresClient#convertToPsqlStandard}
+   */
+  private static String tenantId(String schema) {
+    String suffix = PostgresClient.convertToPsqlStandard("");
+    return schema.endsWith(suffix) ? schema.substring(0, schema.length() - suffix.length()) : schema;
+  }
+}
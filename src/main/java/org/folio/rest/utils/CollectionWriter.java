@@ -0,0 +1,133 @@
+package org.folio.rest.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.folio.rest.tools.utils.BinaryOutStream;
+import org.folio.rest.tools.utils.ObjectMapperTool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes collection responses with a {@link JsonGenerator} straight into a byte array, without building the body as
+ * String or JSON tree first. The envelope properties are written in the order of the generated collection class, the
+ * items are streamed into the items array: stored records as raw values, deserialized records with {@link #mapper()}.
+ * <p>
+ * RMB takes a {@link BinaryOutStream} entity as the response body. The output stream is sized from the length of the
+ * stored records, so it rarely grows, and is copied once to the exact length of the body.
+ */
+public class CollectionWriter {
+  private static final ObjectMapper MAPPER = ObjectMapperTool.getMapper().copy()
+    .registerModule(new AfterburnerModule())
+    .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  private static final int ENVELOPE_BYTES = 256;
+  private static final Map<Class<?>, List<BeanPropertyDefinition>> ENVELOPES = new ConcurrentHashMap<>();
+
+  private final byte[] body;
+  private final String etag;
+
+  private CollectionWriter(byte[] body, String etag) {
+    this.body = body;
+    this.etag = etag;
+  }
+
+  /**
+   * @return the mapper with the configuration of RMB's mapper and generated (de)serializers for the POJOs
+   */
+  public static ObjectMapper mapper() {
+    return MAPPER;
+  }
+
+  /**
+   * @param collection    the collection object with all properties but the items set
+   * @param itemsProperty JSON name of the items property, e.g. "vendors"
+   * @param nextProperty  name of the property added for the cursor of the next page
+   */
+  static <T> CollectionWriter write(Object collection, String itemsProperty, PagedResults<T> results,
+      String nextProperty) throws IOException {
+
+    List<String> rawResults = results.getRawResults();
+    int capacity = ENVELOPE_BYTES;
+    if (rawResults != null) {
+      for (String raw : rawResults) {
+        capacity += raw.length() + 1;
+      }
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream(capacity);
+    try (JsonGenerator generator = MAPPER.getFactory().createGenerator((OutputStream) out, JsonEncoding.UTF8)) {
+      boolean items = false;
+      generator.writeStartObject();
+      for (BeanPropertyDefinition property : envelope(collection.getClass())) {
+        if (!property.getName().equals(itemsProperty)) {
+          Object value = property.getAccessor().getValue(collection);
+          // the generated collection classes leave out null properties
+          if (value != null) {
+            generator.writeFieldName(property.getName());
+            MAPPER.writeValue(generator, value);
+          }
+          continue;
+        }
+        items = true;
+        generator.writeArrayFieldStart(itemsProperty);
+        if (rawResults != null) {
+          for (String raw : rawResults) {
+            generator.writeRawValue(raw);
+          }
+        } else {
+          for (T item : results.getResults()) {
+            MAPPER.writeValue(generator, item);
+          }
+        }
+        generator.writeEndArray();
+      }
+      if (!items) {
+        throw new IllegalStateException("No " + itemsProperty + " property in " + collection.getClass().getName());
+      }
+      if (results.getNextCursor() != null) {
+        generator.writeStringField(nextProperty, results.getNextCursor());
+      }
+      generator.writeEndObject();
+    }
+    byte[] body = out.toByteArray();
+    return new CollectionWriter(body, ETags.ofBody(ByteBuffer.wrap(body)));
+  }
+
+  /**
+   * @return the serialized properties of the collection class in the order Jackson writes them
+   */
+  private static List<BeanPropertyDefinition> envelope(Class<?> collectionClass) {
+    return ENVELOPES.computeIfAbsent(collectionClass, c -> {
+      List<BeanPropertyDefinition> properties = new ArrayList<>();
+      for (BeanPropertyDefinition property : MAPPER.getSerializationConfig().introspect(MAPPER.constructType(c))
+          .findProperties()) {
+        if (property.getAccessor() != null) {
+          properties.add(property);
+        }
+      }
+      return properties;
+    });
+  }
+
+  public BinaryOutStream getBody() {
+    BinaryOutStream stream = new BinaryOutStream();
+    stream.setData(body);
+    return stream;
+  }
+
+  /**
+   * @return the tag {@link ETags#ofBody(String)} gives for the same body
+   */
+  public String getEtag() {
+    return etag;
+  }
+}
@@ -0,0 +1,47 @@
+package org.folio.rest.utils;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * gzip or deflate compression of responses as negotiated by the Accept-Encoding request header, and decompression of
+ * gzip or deflate encoded request bodies, e.g. of batch imports. Both are done by the Netty handlers of the HTTP
+ * server; RMB creates the server, so {@link HttpMetricsFactory} sets the options when the server starts listening.
+ * The module is started with {@link org.folio.rest.impl.VendorsLauncher}, which always installs the factory.
+ * <p>
+ * Module arguments:
+ * <ul>
+ *   <li>{@code compression}: false turns compression and decompression off, default true</li>
+ *   <li>{@code compressionLevel}: 1 (fastest) to 9 (smallest), default {@value #DEFAULT_LEVEL}</li>
+ * </ul>
+ * Responses cannot be kept uncompressed one by one: Netty only skips responses that already have a Content-Encoding,
+ * and {@code identity} is not allowed there.
+ */
+public class Compression {
+  private static final Logger log = LoggerFactory.getLogger(Compression.class);
+
+  public static final String PARAMETER_COMPRESSION = "compression";
+  static final int DEFAULT_LEVEL = 6;
+
+  private Compression() {
+  }
+
+  public static boolean isEnabled() {
+    return Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(PARAMETER_COMPRESSION, "true"));
+  }
+
+  /**
+   * Sets the compression options of the HTTP server, before it accepts connections.
+   */
+  static void configure(HttpServerOptions options) {
+    boolean enabled = isEnabled();
+    int level = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault("compressionLevel", String.valueOf(DEFAULT_LEVEL)));
+    options.setCompressionSupported(enabled)
+      .setCompressionLevel(level)
+      .setDecompressionSupported(enabled);
+    log.info(enabled ? "Response compression with level " + level + ", request decompression" : "No compression");
+  }
+}
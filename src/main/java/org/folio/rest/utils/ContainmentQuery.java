@@ -0,0 +1,122 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.z3950.zing.cql.cql2pgjson.QueryValidationException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates CQL terms on properties inside arrays of a record, e.g. {@code accounts.account_no==99999-10}, into
+ * jsonb containment ({@code @>}) predicates that a {@code jsonb_path_ops} GIN index on the array can serve, see
+ * {@code array_path_indexes.sql}. CQL2PgJSON matches such terms against the text of the whole array, which no index
+ * supports.
+ * <p>
+ * The paths are declared with {@code []} after every array, e.g. {@code accounts[].account_no} or
+ * {@code vendor_currencies[]}. Declare only properties holding codes and numbers: {@code ==} on them compares the
+ * whole value, and as {@code @>} respects case the value is looked up as given, in upper case and in lower case.
+ * {@code =} stays the word match of CQL2PgJSON, which ignores case and accents.
+ * <p>
+ * Only queries made of {@code field=value} and {@code field==value} terms joined by {@code and}, without sortBy, are
+ * translated; {@code =} terms and the terms on other fields are left to CQL2PgJSON.
+ */
+public class ContainmentQuery {
+  private static final Pattern TERM = Pattern.compile("^\\s*([A-Za-z0-9_.]+)\\s*(==|=)\\s*(\"([^\"\\\\*?^]*)\"|([^\\s\"()\\\\*?^=<>]+))\\s*");
+  private static final Pattern AND = Pattern.compile("(?i)^and\\s+");
+
+  private final String table;
+  private final Map<String, String[]> paths = new LinkedHashMap<>();
+
+  /**
+   * @param paths declared array paths, e.g. {@code addresses[].country}; the top level array of each path needs a
+   *              GIN {@code jsonb_path_ops} index on {@code (jsonb->'<array>')}
+   */
+  public ContainmentQuery(String table, String... paths) {
+    this.table = table;
+    for (String path : paths) {
+      String[] segments = path.split("\\.");
+      if (!segments[0].endsWith("[]")) {
+        throw new IllegalArgumentException("Path must start with an array: " + path);
+      }
+      this.paths.put(path.replace("[]", ""), segments);
+    }
+  }
+
+  /**
+   * @return SQL condition equivalent to the query with containment predicates, null if no {@code ==} term of the
+   * query is on a declared path or the query has another form
+   */
+  public String condition(String query) throws QueryValidationException {
+    if (query == null || query.toLowerCase(Locale.ROOT).contains("sortby")) {
+      return null;
+    }
+    List<String> conditions = new ArrayList<>();
+    List<String> otherTerms = new ArrayList<>();
+    String rest = query.trim();
+    while (!rest.isEmpty()) {
+      Matcher term = TERM.matcher(rest);
+      if (!term.lookingAt()) {
+        return null;
+      }
+      String[] path = "==".equals(term.group(2)) ? paths.get(term.group(1)) : null;
+      if (path == null) {
+        otherTerms.add(term.group().trim());
+      } else {
+        conditions.add(containment(path, term.group(4) != null ? term.group(4) : term.group(5)));
+      }
+      rest = rest.substring(term.end());
+      if (!rest.isEmpty()) {
+        Matcher and = AND.matcher(rest);
+        if (!and.lookingAt()) {
+          return null;
+        }
+        rest = rest.substring(and.end());
+      }
+    }
+    if (conditions.isEmpty()) {
+      return null;
+    }
+    if (!otherTerms.isEmpty()) {
+      conditions.add("(" + new CQL2PgJSON(table + ".jsonb").cql2pgJson(String.join(" and ", otherTerms)) + ")");
+    }
+    return String.join(" AND ", conditions);
+  }
+
+  private String containment(String[] path, String value) {
+    String array = path[0].substring(0, path[0].length() - 2);
+    Set<String> values = new LinkedHashSet<>();
+    values.add(value);
+    values.add(value.toUpperCase(Locale.ROOT));
+    values.add(value.toLowerCase(Locale.ROOT));
+    List<String> predicates = new ArrayList<>();
+    for (String variant : values) {
+      predicates.add(String.format("%s.jsonb->'%s' @> '%s'::jsonb", table, array,
+        new JsonArray().add(nest(path, 1, variant)).encode().replace("'", "''")));
+    }
+    return "(" + String.join(" OR ", predicates) + ")";
+  }
+
+  /**
+   * @return the JSON value that the array element at {@code path[index - 1]} must contain
+   */
+  private static Object nest(String[] path, int index, String value) {
+    if (index == path.length) {
+      return value;
+    }
+    String segment = path[index];
+    if (segment.endsWith("[]")) {
+      String name = segment.substring(0, segment.length() - 2);
+      return new JsonObject().put(name, new JsonArray().add(nest(path, index + 1, value)));
+    }
+    return new JsonObject().put(segment, nest(path, index + 1, value));
+  }
+}
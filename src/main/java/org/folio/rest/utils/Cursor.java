@@ -0,0 +1,66 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Position of the last record of a page in keyset pagination: the value of the sort key and the record id.
+ * Passed to the client as an opaque url-safe token.
+ */
+public class Cursor {
+  /** Value of the cursor parameter which requests the first page in cursor mode */
+  public static final String START = "*";
+
+  private static final Pattern UUID_PATTERN = Pattern
+    .compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}$");
+
+  private final String sortBy;
+  private final String sortKey;
+  private final String id;
+
+  public Cursor(String sortBy, String sortKey, String id) {
+    this.sortBy = sortBy;
+    this.sortKey = sortKey;
+    this.id = id;
+  }
+
+  public String getSortBy() {
+    return sortBy;
+  }
+
+  public String getSortKey() {
+    return sortKey;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String encode() {
+    JsonObject json = new JsonObject()
+      .put("s", sortBy)
+      .put("k", sortKey)
+      .put("id", id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json.encode().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+   */
+  public static Cursor decode(String token) {
+    try {
+      JsonObject json = new JsonObject(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+      String id = json.getString("id");
+      if (id == null || !UUID_PATTERN.matcher(id).matches()) {
+        throw new IllegalArgumentException("Invalid cursor: " + token);
+      }
+      return new Cursor(json.getString("s"), json.getString("k"), id);
+    } catch (DecodeException | ClassCastException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + token, e);
+    }
+  }
+}
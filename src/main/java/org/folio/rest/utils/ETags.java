@@ -0,0 +1,109 @@
+package org.folio.rest.utils;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weak entity tags for conditional GETs.
+ * <p>
+ * The tags are weak because the same tag is sent for the identity and the gzip or deflate encoded representation,
+ * which are not byte for byte equal (RFC 7232, section 2.1). If-None-Match uses the weak comparison anyway.
+ * <p>
+ * Items use the Postgres row version ({@code xmin}) of the record, which changes with every write of the row, so
+ * {@code If-None-Match} can be answered without reading the document. Collections use a digest of the response
+ * body.
+ */
+public class ETags {
+  public static final String IF_NONE_MATCH = "If-None-Match";
+
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+
+  private ETags() {
+  }
+
+  /**
+   * @param version row version of a record
+   */
+  public static String ofVersion(String version) {
+    return weak(version);
+  }
+
+  public static String ofBody(String body) {
+    return ofBody(ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * @param body UTF-8 encoded body, read up to its limit
+   */
+  public static String ofBody(ByteBuffer body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      digest.update(body);
+      return weak(Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return the value of the If-None-Match request header, or null if there is none
+   */
+  public static String ifNoneMatch(Map<String, String> okapiHeaders) {
+    for (Map.Entry<String, String> header : okapiHeaders.entrySet()) {
+      if (IF_NONE_MATCH.equalsIgnoreCase(header.getKey())) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the unquoted tags listed in an If-None-Match header
+   */
+  public static List<String> tags(String ifNoneMatch) {
+    List<String> tags = new ArrayList<>();
+    if (ifNoneMatch == null) {
+      return tags;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.startsWith(WEAK_PREFIX)) {
+        tag = tag.substring(WEAK_PREFIX.length());
+      }
+      if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+        tags.add(tag.substring(1, tag.length() - 1));
+      }
+    }
+    return tags;
+  }
+
+  /**
+   * Weak comparison as required for If-None-Match (RFC 7232, section 3.2).
+   */
+  public static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    if (ANY.equals(ifNoneMatch.trim())) {
+      return true;
+    }
+    return tags(ifNoneMatch).contains(etag.substring(WEAK_PREFIX.length() + 1, etag.length() - 1));
+  }
+
+  public static Response notModified(String etag) {
+    return Response.notModified().header(HttpHeaders.ETAG, etag).build();
+  }
+
+  private static String weak(String tag) {
+    return WEAK_PREFIX + "\"" + tag + "\"";
+  }
+}
@@ -0,0 +1,93 @@
+package org.folio.rest.utils;
+
+import org.folio.rest.jaxrs.model.ExpandedVendor;
+import org.folio.rest.persist.PostgresClient;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Builds the SQL expression that inlines linked records into a vendor, so a vendor is read together with its
+ * contacts and categories in a single statement. The added properties are those of the {@code expanded_vendor}
+ * schema, read into {@link ExpandedVendor} if the records are deserialized.
+ * <ul>
+ * <li>{@value #CONTACTS}: the contact records referenced by the {@code contacts} ids are added as
+ * {@code expanded_contacts}, in the order of the ids</li>
+ * <li>{@value #CATEGORIES}: the category records whose ids are in the {@code categories} of any address, phone
+ * number, email or url are added as {@code expanded_categories}, each once and sorted by value</li>
+ * </ul>
+ * The stored properties are left as they are and ids without a record are skipped.
+ */
+public class ExpandHelper {
+  public static final String CONTACTS = "contacts";
+  public static final String CATEGORIES = "categories";
+
+  private static final String[] CATEGORIZED = {"addresses", "phone_numbers", "emails", "urls"};
+  private static final String UUID_PATTERN = "'^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'";
+
+  private ExpandHelper() {
+  }
+
+  /**
+   * @param expand comma separated list of {@value #CONTACTS} and {@value #CATEGORIES}, may be null
+   * @return SQL expression of the vendor with the requested records inlined, null if nothing is to be expanded
+   */
+  public static String vendorExpression(String tenantId, String table, String expand) {
+    Set<String> expansions = parse(expand);
+    if (expansions.isEmpty()) {
+      return null;
+    }
+    String schema = PostgresClient.convertToPsqlStandard(tenantId);
+    String record = table + ".jsonb";
+    StringBuilder expression = new StringBuilder("(").append(record);
+    if (expansions.contains(CONTACTS)) {
+      expression.append(" || jsonb_build_object('expanded_contacts', COALESCE((SELECT jsonb_agg(c.jsonb ORDER BY e.ord)")
+        .append(" FROM jsonb_array_elements_text(").append(array(record + "->'" + CONTACTS + "'"))
+        .append(") WITH ORDINALITY AS e(id, ord) JOIN ").append(schema).append(".contact c ON c._id = ").append(uuid("e.id"))
+        .append("), '[]'::jsonb))");
+    }
+    if (expansions.contains(CATEGORIES)) {
+      StringBuilder categorized = new StringBuilder();
+      for (String property : CATEGORIZED) {
+        categorized.append(categorized.length() == 0 ? "" : " || ").append(array(record + "->'" + property + "'"));
+      }
+      expression.append(" || jsonb_build_object('expanded_categories', COALESCE((SELECT jsonb_agg(cat.jsonb ORDER BY cat.jsonb->>'value')")
+        .append(" FROM ").append(schema).append(".category cat WHERE cat._id IN (SELECT ").append(uuid("n.id"))
+        .append(" FROM jsonb_array_elements(").append(categorized).append(") AS a(value),")
+        .append(" jsonb_array_elements_text(").append(array("a.value->'categories'")).append(") AS n(id))), '[]'::jsonb))");
+    }
+    return expression.append(')').toString();
+  }
+
+  private static Set<String> parse(String expand) {
+    Set<String> expansions = new LinkedHashSet<>();
+    if (expand == null) {
+      return expansions;
+    }
+    for (String value : expand.split(",")) {
+      String expansion = value.trim();
+      if (expansion.isEmpty()) {
+        continue;
+      }
+      if (!CONTACTS.equals(expansion) && !CATEGORIES.equals(expansion)) {
+        throw new IllegalArgumentException("Cannot expand " + expansion);
+      }
+      expansions.add(expansion);
+    }
+    return expansions;
+  }
+
+  /**
+   * @return the JSON value if it is an array, an empty array otherwise
+   */
+  private static String array(String value) {
+    return "CASE WHEN jsonb_typeof(" + value + ") = 'array' THEN " + value + " ELSE '[]'::jsonb END";
+  }
+
+  /**
+   * @return the text as uuid, null if it is no uuid; the CASE makes sure the cast is never evaluated for other text
+   */
+  private static String uuid(String text) {
+    return "CASE WHEN " + text + " ~ " + UUID_PATTERN + " THEN " + text + "::uuid END";
+  }
+}
@@ -0,0 +1,183 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.sql.SQLConnection;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.BinaryOutStream;
+import org.folio.rest.tools.utils.TenantTool;
+import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Export of a table as newline delimited JSON, in pages ordered by id.
+ * <p>
+ * RMB does not give access to the HTTP response for chunked writes, so a response is written in one piece and held
+ * in memory. An export is therefore split into pages of at most {@code exportPageRecords} records (default
+ * {@value #DEFAULT_PAGE_RECORDS}) and about {@code exportPageBytes} bytes (default {@value #DEFAULT_PAGE_BYTES}).
+ * If a page is cut by either limit the response carries the {@value #NEXT_CURSOR_HEADER} header, whose value is
+ * passed as the {@code cursor} parameter to get the next page. A page is read through a server-side Postgres cursor
+ * in batches of {@value #FETCH_SIZE} and the stored jsonb text is appended to the response buffer as is.
+ */
+public class ExportHelper {
+  private static final Logger log = LoggerFactory.getLogger(ExportHelper.class);
+
+  public static final String NEXT_CURSOR_HEADER = "X-Export-Next-Cursor";
+  static final int FETCH_SIZE = 1000;
+  static final int DEFAULT_PAGE_RECORDS = 10000;
+  static final int DEFAULT_PAGE_BYTES = 16 * 1024 * 1024;
+  private static final String CURSOR_NAME = "export_cursor";
+  private static final String NDJSON = "application/x-ndjson";
+  private static final String RESPOND_400 = "respond400WithTextPlain";
+  private static final String RESPOND_500 = "respond500WithTextPlain";
+
+  private static volatile int pageRecords = DEFAULT_PAGE_RECORDS;
+  private static volatile int pageBytes = DEFAULT_PAGE_BYTES;
+
+  private ExportHelper() {
+  }
+
+  /**
+   * Reads the page size module arguments.
+   *
+   * @throws IllegalArgumentException if an argument is malformed
+   */
+  public static void configure() {
+    pageRecords = ModuleArgs.intArg("exportPageRecords", DEFAULT_PAGE_RECORDS, 1);
+    pageBytes = ModuleArgs.intArg("exportPageBytes", DEFAULT_PAGE_BYTES, 1);
+  }
+
+  /**
+   * @param cursor        null for the first page, otherwise the {@value #NEXT_CURSOR_HEADER} of the previous page
+   * @param responseClass the generated response class providing respond400WithTextPlain and respond500WithTextPlain
+   */
+  public static void exportNdjson(String table, String query, String cursor, Map<String, String> okapiHeaders,
+      Context vertxContext, Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    vertxContext.runOnContext(v -> {
+      String sql;
+      PostgresClient pgClient;
+      try {
+        String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+        String filter = QueryHelper.withoutSortBy(query);
+        String where = filter == null || filter.trim().isEmpty()
+          ? "true" : new CQL2PgJSON(String.format("%s.jsonb", table)).cql2pgJson(filter);
+        StringBuilder select = new StringBuilder("DECLARE ").append(CURSOR_NAME)
+          .append(" NO SCROLL CURSOR FOR SELECT jsonb::text, _id::text FROM ")
+          .append(PostgresClient.convertToPsqlStandard(tenantId)).append('.').append(table)
+          .append(" WHERE (").append(where).append(')');
+        if (cursor != null && !cursor.isEmpty()) {
+          Cursor after = Cursor.decode(cursor);
+          if (after.getSortBy() != null) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+          }
+          // decode only accepts a uuid
+          select.append(" AND _id > '").append(after.getId()).append("'::uuid");
+        }
+        sql = select.append(" ORDER BY _id").toString();
+        pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        respond(responseClass, RESPOND_400, e.getMessage(), asyncResultHandler);
+        return;
+      }
+
+      pgClient.getClient().getConnection(conn -> {
+        if (conn.failed()) {
+          log.error(conn.cause().getMessage(), conn.cause());
+          respond(responseClass, RESPOND_500, conn.cause().getMessage(), asyncResultHandler);
+          return;
+        }
+        SQLConnection connection = conn.result();
+        connection.setAutoCommit(false, tx -> {
+          if (tx.failed()) {
+            connection.close();
+            log.error(tx.cause().getMessage(), tx.cause());
+            respond(responseClass, RESPOND_500, tx.cause().getMessage(), asyncResultHandler);
+            return;
+          }
+          connection.execute(sql, declared -> {
+            if (declared.failed()) {
+              finish(connection, null, null, declared.cause(), responseClass, asyncResultHandler);
+              return;
+            }
+            fetch(connection, Buffer.buffer(), 0, responseClass, asyncResultHandler);
+          });
+        });
+      });
+    });
+  }
+
+  private static void fetch(SQLConnection connection, Buffer ndjson, int records,
+      Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    int batch = Math.min(FETCH_SIZE, pageRecords - records);
+    connection.query(String.format("FETCH %d FROM %s", batch, CURSOR_NAME), reply -> {
+      if (reply.failed()) {
+        finish(connection, null, null, reply.cause(), responseClass, asyncResultHandler);
+        return;
+      }
+      int fetched = records;
+      for (JsonArray row : reply.result().getResults()) {
+        ndjson.appendString(row.getString(0)).appendByte((byte) '\n');
+        fetched++;
+        if (fetched == pageRecords || ndjson.length() >= pageBytes) {
+          String next = new Cursor(null, null, row.getString(1)).encode();
+          finish(connection, ndjson, next, null, responseClass, asyncResultHandler);
+          return;
+        }
+      }
+      if (reply.result().getNumRows() < batch) {
+        finish(connection, ndjson, null, null, responseClass, asyncResultHandler);
+      } else {
+        fetch(connection, ndjson, fetched, responseClass, asyncResultHandler);
+      }
+    });
+  }
+
+  private static void finish(SQLConnection connection, Buffer ndjson, String next, Throwable cause,
+      Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    // read-only transaction, rolling back releases the cursor as well
+    connection.rollback(done -> {
+      connection.close();
+      if (cause != null) {
+        log.error(cause.getMessage(), cause);
+        respond(responseClass, RESPOND_500, cause.getMessage(), asyncResultHandler);
+        return;
+      }
+      BinaryOutStream stream = new BinaryOutStream();
+      stream.setData(ndjson.getBytes());
+      Response.ResponseBuilder response = Response.status(Response.Status.OK)
+        .header(HttpHeaders.CONTENT_TYPE, NDJSON)
+        .entity(stream);
+      if (next != null) {
+        response.header(NEXT_CURSOR_HEADER, next);
+      }
+      asyncResultHandler.handle(Future.succeededFuture(response.build()));
+    });
+  }
+
+  private static void respond(Class<? extends ResponseDelegate> responseClass, String methodName, Object entity,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    try {
+      Method respond = responseClass.getMethod(methodName, Object.class);
+      asyncResultHandler.handle(Future.succeededFuture((Response) respond.invoke(null, entity)));
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.failedFuture(e));
+    }
+  }
+}
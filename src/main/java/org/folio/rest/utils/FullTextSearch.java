@@ -0,0 +1,86 @@
+package org.folio.rest.utils;
+
+import org.folio.rest.persist.PostgresClient;
+import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.z3950.zing.cql.cql2pgjson.QueryValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Relevance ranked search over a tsvector built from several properties of a record by an indexed SQL function,
+ * e.g. {@code vendor_search_text} in {@code vendor_search.sql}.
+ * <p>
+ * Every word of the search text must occur in the record, as a word or as the beginning of a word; case and accents
+ * are ignored. Records are ordered by {@code ts_rank}, so matches in higher weighted properties come first.
+ */
+public class FullTextSearch {
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final Pattern SORT_BY = Pattern.compile("(?i)\\bsortBy\\b");
+
+  private final String table;
+  private final String function;
+
+  /**
+   * @param function name of the SQL function in the tenant schema returning the tsvector of the jsonb of a record
+   */
+  public FullTextSearch(String table, String function) {
+    this.table = table;
+    this.function = function;
+  }
+
+  /**
+   * @param search words to search for
+   * @param query  optional CQL query the records must match as well, must not contain sortBy
+   * @return SQL condition selecting the matching records, null if the search text has no words
+   */
+  public String condition(String tenantId, String search, String query) throws QueryValidationException {
+    String tsQuery = tsQuery(search);
+    if (tsQuery == null) {
+      return null;
+    }
+    String condition = vector(tenantId) + " @@ " + tsQuery;
+    if (query == null || query.trim().isEmpty()) {
+      return condition;
+    }
+    if (SORT_BY.matcher(query).find()) {
+      throw new IllegalArgumentException("Search results are ordered by relevance, the query must not contain sortBy");
+    }
+    return condition + " AND (" + new CQL2PgJSON(table + ".jsonb").cql2pgJson(query) + ")";
+  }
+
+  /**
+   * @return SQL ORDER BY list putting the most relevant records first, null if the search text has no words
+   */
+  public String order(String tenantId, String search) {
+    String tsQuery = tsQuery(search);
+    if (tsQuery == null) {
+      return null;
+    }
+    return "ts_rank(" + vector(tenantId) + ", " + tsQuery + ") DESC, " + table + "._id";
+  }
+
+  private String vector(String tenantId) {
+    return PostgresClient.convertToPsqlStandard(tenantId) + "." + function + "(" + table + ".jsonb)";
+  }
+
+  /**
+   * @return tsquery matching records containing all words as prefixes; only letters and digits are kept, so the
+   * text needs no further escaping
+   */
+  private static String tsQuery(String search) {
+    List<String> words = new ArrayList<>();
+    if (search != null) {
+      for (String word : WORD_SEPARATOR.split(search)) {
+        if (!word.isEmpty()) {
+          words.add(word + ":*");
+        }
+      }
+    }
+    if (words.isEmpty()) {
+      return null;
+    }
+    return "to_tsquery('simple', f_unaccent('" + String.join(" & ", words) + "'))";
+  }
+}
@@ -0,0 +1,150 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.metrics.impl.DummyVertxMetrics;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.spi.VertxMetricsFactory;
+import io.vertx.core.spi.metrics.HttpServerMetrics;
+import io.vertx.core.spi.metrics.VertxMetrics;
+import org.folio.rest.RestVerticle;
+
+import java.util.regex.Pattern;
+
+/**
+ * Records every HTTP request handled by the module in {@link Metrics}. RMB owns the HTTP server, so the requests are
+ * taken from the Vert.x metrics SPI; {@link org.folio.rest.impl.VendorsLauncher} installs the factory. It is also
+ * registered in {@code META-INF/services} for {@code -Dvertx.metrics.options.enabled=true}.
+ * <p>
+ * The endpoint label is the path with ids replaced by {@code {id}}, e.g. {@code /vendor-storage/vendors/{id}}.
+ * <p>
+ * This is also the only access to the options of the HTTP server, {@link Compression} is configured here.
+ */
+public class HttpMetricsFactory implements VertxMetricsFactory {
+  private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+  private static final Pattern NAME = Pattern.compile("[a-z_-]+");
+
+  @Override
+  public VertxMetrics metrics(Vertx vertx, VertxOptions options) {
+    return new DummyVertxMetrics() {
+      @Override
+      public HttpServerMetrics createMetrics(HttpServer server, SocketAddress localAddress, HttpServerOptions serverOptions) {
+        // the options of the server, read by Netty for every new connection
+        Compression.configure(serverOptions);
+        return new RequestMetrics();
+      }
+
+      @Override
+      public boolean isMetricsEnabled() {
+        return true;
+      }
+    };
+  }
+
+  static String endpoint(String path) {
+    StringBuilder endpoint = new StringBuilder();
+    for (String segment : path.split("/")) {
+      if (segment.isEmpty()) {
+        continue;
+      }
+      endpoint.append('/').append(NAME.matcher(segment).matches() && !UUID.matcher(segment).matches() ? segment : "{id}");
+    }
+    return endpoint.length() == 0 ? "/" : endpoint.toString();
+  }
+
+  private static class Request {
+    private final String method;
+    private final String endpoint;
+    private final String tenant;
+    private final long start = System.nanoTime();
+
+    private Request(HttpServerRequest request) {
+      method = request.rawMethod();
+      endpoint = endpoint(request.path());
+      tenant = request.getHeader(RestVerticle.OKAPI_HEADER_TENANT);
+    }
+  }
+
+  private static class RequestMetrics implements HttpServerMetrics<Request, Void, Void> {
+    @Override
+    public Request requestBegin(Void socketMetric, HttpServerRequest request) {
+      return new Request(request);
+    }
+
+    @Override
+    public void responseEnd(Request request, HttpServerResponse response) {
+      if (request == null) {
+        return;
+      }
+      // bytesWritten counts the body before the compression handler encodes it
+      Metrics.request(request.method, request.endpoint, request.tenant, response.getStatusCode(), request.start,
+        response.bytesWritten());
+    }
+
+    @Override
+    public void requestReset(Request request) {
+      // the client has gone, there is no response to record
+    }
+
+    @Override
+    public Request responsePushed(Void socketMetric, HttpMethod method, String uri, HttpServerResponse response) {
+      return null;
+    }
+
+    @Override
+    public Void upgrade(Request request, ServerWebSocket serverWebSocket) {
+      return null;
+    }
+
+    @Override
+    public Void connected(Void socketMetric, ServerWebSocket serverWebSocket) {
+      return null;
+    }
+
+    @Override
+    public void disconnected(Void serverWebSocketMetric) {
+      // no web sockets
+    }
+
+    @Override
+    public Void connected(SocketAddress remoteAddress, String remoteName) {
+      return null;
+    }
+
+    @Override
+    public void disconnected(Void socketMetric, SocketAddress remoteAddress) {
+      // connections are not recorded
+    }
+
+    @Override
+    public void bytesRead(Void socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
+      // bytes are taken from the response
+    }
+
+    @Override
+    public void bytesWritten(Void socketMetric, SocketAddress remoteAddress, long numberOfBytes) {
+      // bytes are taken from the response
+    }
+
+    @Override
+    public void exceptionOccurred(Void socketMetric, SocketAddress remoteAddress, Throwable t) {
+      // failed requests are recorded with their status
+    }
+
+    @Override
+    public boolean isEnabled() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+  }
+}
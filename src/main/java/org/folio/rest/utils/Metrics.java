@@ -0,0 +1,228 @@
+package org.folio.rest.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request, database and connection pool metrics of this module instance in the Prometheus text format, served by
+ * {@code GET /vendor-storage/metrics}.
+ * <p>
+ * HTTP requests are recorded by {@link HttpMetricsFactory} if Vert.x metrics are enabled; database queries and pool
+ * usage are recorded for the queries of {@link QueryHelper}. Each metric keeps at most {@value #MAX_SERIES} label
+ * combinations, further ones are added up with all labels set to "other".
+ */
+public class Metrics {
+  static final int MAX_SERIES = 1000;
+  private static final String OTHER = "other";
+
+  private static final double[] SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+  private static final double[] BYTES = {256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304, 16777216};
+  private static final double[] ROWS = {0, 1, 10, 50, 100, 500, 1000, 10000};
+
+  private static final Histogram REQUEST_SECONDS = new Histogram("mod_vendors_http_request_duration_seconds",
+    "Time from receiving the request to the end of the response", SECONDS, "method", "endpoint", "tenant", "status");
+  private static final Histogram RESPONSE_BYTES = new Histogram("mod_vendors_http_response_size_bytes",
+    "Uncompressed bytes of the response, before any gzip or deflate encoding", BYTES, "method", "endpoint", "tenant", "status");
+  private static final Histogram QUERY_SECONDS = new Histogram("mod_vendors_db_query_duration_seconds",
+    "Database time of a query including the wait for a pool connection", SECONDS, "tenant", "table", "query");
+  private static final Histogram QUERY_ROWS = new Histogram("mod_vendors_db_query_rows",
+    "Rows returned by a query", ROWS, "tenant", "table", "query");
+  private static final Histogram POOL_WAIT_SECONDS = new Histogram("mod_vendors_db_pool_wait_seconds",
+    "Time waited for a pool connection", SECONDS, "pool");
+  private static final Map<String, AtomicInteger> POOL_IN_USE = new ConcurrentHashMap<>();
+  private static final Map<String, AtomicInteger> POOL_WAITERS = new ConcurrentHashMap<>();
+
+  private Metrics() {
+  }
+
+  /**
+   * @param endpoint path of the request with ids replaced, see {@link HttpMetricsFactory}
+   * @param tenant   tenant of the request, may be null
+   * @param start    {@link System#nanoTime()} at the start of the request
+   */
+  public static void request(String method, String endpoint, String tenant, int status, long start, long bytes) {
+    String[] labels = {method, endpoint, tenant == null ? "" : tenant, String.valueOf(status)};
+    REQUEST_SECONDS.observe(seconds(start), labels);
+    RESPONSE_BYTES.observe(bytes, labels);
+  }
+
+  /**
+   * @param query kind of query, e.g. "page" or "count"
+   * @param start {@link System#nanoTime()} before the query was sent
+   * @param rows  rows returned, negative if the kind of query returns no records
+   */
+  public static void query(String tenant, String table, String query, long start, int rows) {
+    QUERY_SECONDS.observe(seconds(start), tenant, table, query);
+    if (rows >= 0) {
+      QUERY_ROWS.observe(rows, tenant, table, query);
+    }
+  }
+
+  /**
+   * Records the request of a pool connection.
+   *
+   * @return the start time to pass to {@link #connectionTaken}
+   */
+  public static long connectionRequested(String pool) {
+    gauge(POOL_WAITERS, pool).incrementAndGet();
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the end of the wait for a connection, whether it was taken or not.
+   */
+  public static void connectionTaken(String pool, long start, boolean taken) {
+    gauge(POOL_WAITERS, pool).decrementAndGet();
+    POOL_WAIT_SECONDS.observe(seconds(start), pool);
+    if (taken) {
+      gauge(POOL_IN_USE, pool).incrementAndGet();
+    }
+  }
+
+  public static void connectionReturned(String pool) {
+    gauge(POOL_IN_USE, pool).decrementAndGet();
+  }
+
+  /**
+   * @param caches caches whose statistics are added
+   * @return all metrics in the Prometheus text exposition format, version 0.0.4
+   */
+  public static String scrape(Collection<RecordCache> caches) {
+    StringBuilder text = new StringBuilder();
+    REQUEST_SECONDS.write(text);
+    RESPONSE_BYTES.write(text);
+    QUERY_SECONDS.write(text);
+    QUERY_ROWS.write(text);
+    POOL_WAIT_SECONDS.write(text);
+    writeGauges(text, "mod_vendors_db_pool_connections_in_use", "Pool connections taken by queries", POOL_IN_USE);
+    writeGauges(text, "mod_vendors_db_pool_waiters", "Queries waiting for a pool connection", POOL_WAITERS);
+    for (String stat : Arrays.asList("hits", "misses", "evictions")) {
+      header(text, "mod_vendors_cache_" + stat + "_total", "Record cache " + stat, "counter");
+      for (RecordCache cache : caches) {
+        sample(text, "mod_vendors_cache_" + stat + "_total", new String[] {"cache"}, new String[] {cache.getName()}, null,
+          cache.stats().getLong(stat));
+      }
+    }
+    for (String stat : Arrays.asList("entries", "bytes")) {
+      header(text, "mod_vendors_cache_" + stat, "Record cache " + stat, "gauge");
+      for (RecordCache cache : caches) {
+        sample(text, "mod_vendors_cache_" + stat, new String[] {"cache"}, new String[] {cache.getName()}, null,
+          cache.stats().getLong(stat));
+      }
+    }
+    return text.toString();
+  }
+
+  private static AtomicInteger gauge(Map<String, AtomicInteger> gauges, String pool) {
+    return gauges.computeIfAbsent(pool, p -> new AtomicInteger());
+  }
+
+  private static double seconds(long start) {
+    return (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+
+  private static void writeGauges(StringBuilder text, String name, String help, Map<String, AtomicInteger> gauges) {
+    header(text, name, help, "gauge");
+    for (Map.Entry<String, AtomicInteger> gauge : gauges.entrySet()) {
+      sample(text, name, new String[] {"pool"}, new String[] {gauge.getKey()}, null, gauge.getValue().get());
+    }
+  }
+
+  private static void header(StringBuilder text, String name, String help, String type) {
+    text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+      .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  /**
+   * @param le upper bound of a histogram bucket, null for other samples
+   */
+  private static void sample(StringBuilder text, String name, String[] labelNames, String[] labels, String le,
+      Number value) {
+
+    text.append(name);
+    List<String> pairs = new ArrayList<>();
+    for (int i = 0; i < labelNames.length; i++) {
+      pairs.add(labelNames[i] + "=\"" + escape(labels[i]) + '"');
+    }
+    if (le != null) {
+      pairs.add("le=\"" + le + '"');
+    }
+    if (!pairs.isEmpty()) {
+      text.append('{').append(String.join(",", pairs)).append('}');
+    }
+    text.append(' ').append(value).append('\n');
+  }
+
+  private static String escape(String label) {
+    return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private static class Histogram {
+    private final String name;
+    private final String help;
+    private final double[] buckets;
+    private final String[] labelNames;
+    private final Map<List<String>, Series> series = new ConcurrentHashMap<>();
+
+    private static class Series {
+      private final LongAdder[] counts;
+      private final DoubleAdder sum = new DoubleAdder();
+
+      private Series(int buckets) {
+        counts = new LongAdder[buckets + 1];
+        for (int i = 0; i < counts.length; i++) {
+          counts[i] = new LongAdder();
+        }
+      }
+    }
+
+    private Histogram(String name, String help, double[] buckets, String... labelNames) {
+      this.name = name;
+      this.help = help;
+      this.buckets = buckets;
+      this.labelNames = labelNames;
+    }
+
+    private void observe(double value, String... labels) {
+      List<String> key = Arrays.asList(labels);
+      Series values = series.get(key);
+      if (values == null) {
+        if (series.size() >= MAX_SERIES) {
+          String[] other = new String[labels.length];
+          Arrays.fill(other, OTHER);
+          key = Arrays.asList(other);
+        }
+        values = series.computeIfAbsent(key, k -> new Series(buckets.length));
+      }
+      int bucket = 0;
+      while (bucket < buckets.length && value > buckets[bucket]) {
+        bucket++;
+      }
+      values.counts[bucket].increment();
+      values.sum.add(value);
+    }
+
+    private void write(StringBuilder text) {
+      header(text, name, help, "histogram");
+      for (Map.Entry<List<String>, Series> entry : series.entrySet()) {
+        String[] labels = entry.getKey().toArray(new String[0]);
+        long cumulative = 0;
+        for (int i = 0; i <= buckets.length; i++) {
+          cumulative += entry.getValue().counts[i].sum();
+          sample(text, name + "_bucket", labelNames, labels, i < buckets.length ? String.valueOf(buckets[i]) : "+Inf",
+            cumulative);
+        }
+        sample(text, name + "_sum", labelNames, labels, null, entry.getValue().sum.sum());
+        sample(text, name + "_count", labelNames, labels, null, cumulative);
+      }
+    }
+  }
+}
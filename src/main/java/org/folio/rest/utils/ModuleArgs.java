@@ -0,0 +1,62 @@
+package org.folio.rest.utils;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Numeric module arguments. They are read once when the module starts, see
+ * {@link org.folio.rest.impl.ModuleArgsInit}, so that a malformed value fails the deployment rather than a request.
+ */
+public class ModuleArgs {
+
+  private ModuleArgs() {
+  }
+
+  /**
+   * @throws IllegalArgumentException if the argument is not an integer of at least min
+   */
+  public static int intArg(String name, int defaultValue, int min) {
+    String value = MODULE_SPECIFIC_ARGS.getOrDefault(name, String.valueOf(defaultValue));
+    try {
+      int result = Integer.parseInt(value.trim());
+      if (result >= min) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalArgumentException(String.format("Module argument %s must be an integer >= %d: %s", name, min, value));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the argument is not an integer of at least min
+   */
+  public static long longArg(String name, long defaultValue, long min) {
+    String value = MODULE_SPECIFIC_ARGS.getOrDefault(name, String.valueOf(defaultValue));
+    try {
+      long result = Long.parseLong(value.trim());
+      if (result >= min) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalArgumentException(String.format("Module argument %s must be an integer >= %d: %s", name, min, value));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the argument is not a number between min and max
+   */
+  public static double doubleArg(String name, double defaultValue, double min, double max) {
+    String value = MODULE_SPECIFIC_ARGS.getOrDefault(name, String.valueOf(defaultValue));
+    try {
+      double result = Double.parseDouble(value.trim());
+      if (result >= min && result <= max) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalArgumentException(String.format("Module argument %s must be a number from %s to %s: %s",
+      name, min, max, value));
+  }
+}
@@ -0,0 +1,45 @@
+package org.folio.rest.utils;
+
+import org.folio.rest.persist.interfaces.Results;
+
+import java.util.List;
+
+/**
+ * {@link Results} with the opaque cursor pointing to the next page, if the collection was fetched in cursor mode,
+ * and the stored JSON of the records, if they were read without deserialization.
+ */
+public class PagedResults<T> extends Results<T> {
+  private String nextCursor;
+  private List<String> rawResults;
+
+  public PagedResults(Results<T> results) {
+    setResults(results.getResults());
+    setResultInfo(results.getResultInfo());
+  }
+
+  public PagedResults() {
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * @return the records as stored in the jsonb column, null if the records were deserialized into {@link #getResults()}
+   */
+  public List<String> getRawResults() {
+    return rawResults;
+  }
+
+  public void setRawResults(List<String> rawResults) {
+    this.rawResults = rawResults;
+  }
+
+  public int size() {
+    return rawResults != null ? rawResults.size() : getResults().size();
+  }
+}
@@ -0,0 +1,162 @@
+package org.folio.rest.utils;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.Error;
+import org.folio.rest.jaxrs.model.Errors;
+import org.folio.rest.jaxrs.model.Metadata;
+import org.folio.rest.jaxrs.model.Parameter;
+import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.ObjectMapperTool;
+import org.folio.rest.tools.utils.TenantTool;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON merge patch (RFC 7396) of a single record.
+ * <p>
+ * The patch is applied by the {@code jsonb_merge_patch} database function created by {@code jsonb_merge_patch.sql},
+ * so the stored document is neither loaded nor deserialized. Only the patch itself is checked against the record
+ * class: it must deserialize into it, and the bean validation constraints of the properties it sets must hold, else
+ * the request fails with 422 like a PUT. Constraints of properties the patch does not mention are not checked, the
+ * stored values of those are kept.
+ */
+public class PatchHelper {
+  private static final Logger log = LoggerFactory.getLogger(PatchHelper.class);
+
+  private static final String ID_PROPERTY = "id";
+  private static final String METADATA_PROPERTY = "metadata";
+  private static final String RESPOND_204 = "respond204";
+  private static final String RESPOND_400 = "respond400WithTextPlain";
+  private static final String RESPOND_404 = "respond404WithTextPlain";
+  private static final String RESPOND_422 = "respond422WithApplicationJson";
+  private static final String RESPOND_500 = "respond500WithTextPlain";
+
+  private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+  private PatchHelper() {
+  }
+
+  /**
+   * @param responseClass the generated response class providing respond204, respond400WithTextPlain,
+   *                      respond404WithTextPlain, respond422WithApplicationJson and respond500WithTextPlain
+   */
+  public static <T> void patchById(String table, Class<T> clazz, String id, Map<String, Object> patch,
+      Map<String, String> okapiHeaders, Context vertxContext, Class<? extends ResponseDelegate> responseClass,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    vertxContext.runOnContext(v -> {
+      String patchJson;
+      try {
+        Object patchId = patch.get(ID_PROPERTY);
+        if (patchId != null && !id.equals(patchId)) {
+          respond(responseClass, RESPOND_400, "The id of a record cannot be changed", asyncResultHandler);
+          return;
+        }
+        Errors errors = validate(clazz, ObjectMapperTool.getMapper().convertValue(patch, clazz), patch);
+        if (!errors.getErrors().isEmpty()) {
+          respond(responseClass, RESPOND_422, errors, asyncResultHandler);
+          return;
+        }
+        patchJson = withMetadata(patch, okapiHeaders).encode();
+      } catch (IllegalArgumentException e) {
+        respond(responseClass, RESPOND_400, e.getMessage(), asyncResultHandler);
+        return;
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        respond(responseClass, RESPOND_500, e.getMessage(), asyncResultHandler);
+        return;
+      }
+
+      String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+      String schema = PostgresClient.convertToPsqlStandard(tenantId);
+      String sql = String.format("UPDATE %s.%s SET jsonb = %s.jsonb_merge_patch(jsonb, ?::jsonb) WHERE _id = ?::uuid",
+        schema, table, schema);
+      PostgresClient.getInstance(vertxContext.owner(), tenantId).getClient()
+        .updateWithParams(sql, new JsonArray().add(patchJson).add(id), reply -> {
+          if (reply.failed()) {
+            log.error(reply.cause().getMessage(), reply.cause());
+            respond(responseClass, RESPOND_500, reply.cause().getMessage(), asyncResultHandler);
+          } else if (reply.result().getUpdated() == 0) {
+            respond(responseClass, RESPOND_404, "Not found", asyncResultHandler);
+          } else {
+            respond(responseClass, RESPOND_204, null, asyncResultHandler);
+          }
+        });
+    });
+  }
+
+  /**
+   * Validates the record the patch was converted to. Violations are reported in the format of RMB's PUT validation,
+   * but only for the top level properties the patch contains; the record lacks all others.
+   */
+  private static <T> Errors validate(Class<T> clazz, T record, Map<String, Object> patch) {
+    List<String> patchedFields = new ArrayList<>();
+    for (Field field : clazz.getDeclaredFields()) {
+      JsonProperty property = field.getAnnotation(JsonProperty.class);
+      if (property != null && patch.containsKey(property.value())) {
+        patchedFields.add(field.getName());
+      }
+    }
+    List<Error> errors = new ArrayList<>();
+    for (ConstraintViolation<T> violation : validator.validate(record)) {
+      if (patchedFields.contains(violation.getPropertyPath().iterator().next().getName())) {
+        errors.add(new Error()
+          .withMessage(violation.getMessage())
+          .withType("1")
+          .withCode("-1")
+          .withParameters(Collections.singletonList(new Parameter()
+            .withKey(violation.getPropertyPath().toString())
+            .withValue(String.valueOf(violation.getInvalidValue())))));
+      }
+    }
+    return new Errors().withErrors(errors);
+  }
+
+  /**
+   * Replaces the metadata of the patch by the update date and user, the created values of the record are kept by
+   * the merge.
+   */
+  private static JsonObject withMetadata(Map<String, Object> patch, Map<String, String> okapiHeaders)
+    throws Exception {
+    Metadata metadata = new Metadata()
+      .withUpdatedDate(new Date())
+      .withUpdatedByUserId(okapiHeaders.get(RestVerticle.OKAPI_USERID_HEADER));
+    return new JsonObject(patch)
+      .put(METADATA_PROPERTY, new JsonObject(ObjectMapperTool.getMapper().writeValueAsString(metadata)));
+  }
+
+  private static void respond(Class<? extends ResponseDelegate> responseClass, String methodName, Object entity,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    try {
+      Response response;
+      if (entity == null) {
+        response = (Response) responseClass.getMethod(methodName).invoke(null);
+      } else {
+        response = QueryHelper.respond(responseClass, methodName, entity);
+      }
+      asyncResultHandler.handle(Future.succeededFuture(response));
+    } catch (Exception e) {
+      log.error(e.getMessage(), e);
+      asyncResultHandler.handle(Future.failedFuture(e));
+    }
+  }
+}
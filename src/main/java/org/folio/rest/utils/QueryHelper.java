@@ -0,0 +1,615 @@
+package org.folio.rest.utils;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.asyncsql.AsyncSQLClient;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.ResultInfo;
+import org.folio.rest.jaxrs.resource.support.ResponseDelegate;
+import org.folio.rest.persist.Criteria.Limit;
+import org.folio.rest.persist.Criteria.Offset;
+import org.folio.rest.persist.PgUtil;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.tools.utils.TenantTool;
+import org.z3950.zing.cql.cql2pgjson.CQL2PgJSON;
+import org.z3950.zing.cql.cql2pgjson.FieldException;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class QueryHelper {
+  private static final Logger log = LoggerFactory.getLogger(QueryHelper.class);
+
+  /** Module argument switching reads from raw jsonb passthrough (default) back to POJO deserialization */
+  public static final String PARAMETER_RAW_JSON = "rawJson";
+
+  private static final String ID_COLUMN = "_id";
+  private static final String NEXT_CURSOR_PROPERTY = "next";
+
+  private static final Pattern SORT_BY = Pattern.compile("(?i)^(.*?)\\s*\\bsortBy\\s+(.+)$");
+  private static final Pattern EXACT_MATCH = Pattern.compile("^\\s*([A-Za-z0-9_]+)\\s*==\\s*(\"([^\"\\\\*?^]*)\"|([^\\s\"()\\\\*?^=<>]+))\\s*$");
+  private static final Pattern SORT_INDEX = Pattern.compile("^([A-Za-z0-9_]+(?:\\.[A-Za-z0-9_]+)*)((?:/[A-Za-z.]+)*)$");
+
+  private static final Map<Class<?>, String> ITEMS_PROPERTIES = new ConcurrentHashMap<>();
+
+  private QueryHelper() {
+  }
+
+  /**
+   * Whether records are read as the stored jsonb text and written to the response without the POJO round-trip.
+   * Can be switched off with the rawJson=false module argument.
+   */
+  public static boolean isRawJson() {
+    return Boolean.parseBoolean(MODULE_SPECIFIC_ARGS.getOrDefault(PARAMETER_RAW_JSON, "true"));
+  }
+
+  /**
+   * Runs a CQL query against the table and calculates total records according to the requested mode.
+   * The exact mode keeps the previous behaviour of counting all matching records; for the estimated mode the count is
+   * taken from the query plan, unless the page itself shows where the result set ends.
+   * <p>
+   * If a cursor is given the page is fetched with keyset pagination instead of offset: the records following the cursor
+   * position in (sort key, id) order are returned together with the cursor of the next page. Use {@link Cursor#START}
+   * to fetch the first page.
+   * <p>
+   * In {@link #isRawJson() raw JSON} mode the records are returned in {@link PagedResults#getRawResults()} only.
+   * <p>
+   * The queries go to the {@link ReadReplica} if one is configured and has caught up with the request.
+   */
+  public static <T> void getCollection(Context vertxContext, String tenantId, String table, Class<T> clazz, String query,
+      int offset, int limit, TotalRecordsMode totalRecordsMode, String cursor, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<PagedResults<T>>> replyHandler) throws FieldException {
+    getCollection(vertxContext, tenantId, table, clazz, query, offset, limit, totalRecordsMode, cursor, null, null, null,
+      okapiHeaders, replyHandler);
+  }
+
+  /**
+   * Same as {@link #getCollection(Context, String, String, Class, String, int, int, TotalRecordsMode, String, Map, Handler)}
+   * but returns the given SQL expression instead of the stored record and may bypass the CQL translation.
+   *
+   * @param select    SQL expression of the record to return, e.g. by {@link ExpandHelper}, null for the stored jsonb;
+   *                  such records are always returned as raw JSON
+   * @param condition SQL condition equivalent to the query, e.g. by {@link #exactMatch}, null to translate the query
+   * @param orderBy   SQL ORDER BY list to use with the condition, e.g. by {@link FullTextSearch}, may be null; cannot
+   *                  be combined with a cursor
+   */
+  public static <T> void getCollection(Context vertxContext, String tenantId, String table, Class<T> clazz, String query,
+      int offset, int limit, TotalRecordsMode totalRecordsMode, String cursor, String select, String condition,
+      String orderBy, Map<String, String> okapiHeaders, Handler<AsyncResult<PagedResults<T>>> replyHandler)
+    throws FieldException {
+
+    CQL2PgJSON cql2PgJSON = new CQL2PgJSON(String.format("%s.jsonb", table));
+    PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+    AsyncSQLClient reader = ReadReplica.reader(pgClient, okapiHeaders);
+
+    if (cursor != null && orderBy != null) {
+      replyHandler.handle(Future.failedFuture(new IllegalArgumentException("Cursor paging is not supported for this order")));
+      return;
+    }
+    if (cursor != null) {
+      getPageAfterCursor(pgClient, reader, tenantId, table, clazz, cql2PgJSON, query, limit, totalRecordsMode, cursor,
+        select, condition, replyHandler);
+      return;
+    }
+
+    CQLWrapper cql = new CQLWrapper(cql2PgJSON, query)
+      .setLimit(new Limit(limit))
+      .setOffset(new Offset(offset));
+    boolean exactCount = totalRecordsMode == TotalRecordsMode.EXACT;
+
+    Handler<AsyncResult<PagedResults<T>>> countHandler = reply -> {
+      if (reply.failed()) {
+        replyHandler.handle(reply);
+        return;
+      }
+
+      PagedResults<T> results = reply.result();
+      int pageSize = results.size();
+      if (exactCount && pageSize == 0 && offset == 0) {
+        results.getResultInfo().setTotalRecords(0);
+      }
+      if (exactCount && results.getResultInfo().getTotalRecords() != null) {
+        replyHandler.handle(reply);
+        return;
+      }
+      if (!exactCount && pageSize < limit && (pageSize > 0 || offset == 0)) {
+        // The last page was reached, so the exact number is known without asking the database
+        results.getResultInfo().setTotalRecords(totalRecordsMode == TotalRecordsMode.NONE ? null : offset + pageSize);
+        replyHandler.handle(reply);
+        return;
+      }
+
+      String where = condition == null ? new CQLWrapper(cql2PgJSON, query).toString() : "WHERE " + condition;
+      countRecords(reader, tenantId, table, query, where, totalRecordsMode, count -> {
+        results.getResultInfo().setTotalRecords(count == null ? null : Math.max(count, offset + pageSize));
+        replyHandler.handle(Future.succeededFuture(results));
+      });
+    };
+
+    // not PostgresClient.get, it can neither set the statement timeout nor read from the replica
+    boolean rawJson = isRawJson() || select != null;
+    String filter = condition == null ? cql.toString() : String.format("WHERE %s%s LIMIT %d OFFSET %d", condition,
+      orderBy == null ? "" : " ORDER BY " + orderBy, limit, offset);
+    String sql = String.format("SELECT %s::text AS jsonb%s FROM %s.%s %s", select == null ? "jsonb" : select,
+      exactCount ? ", count(*) OVER() AS total_count" : "", PostgresClient.convertToPsqlStandard(tenantId), table, filter);
+    long start = System.nanoTime();
+    SlowQueryLog slowQuery = new SlowQueryLog(reader, tenantId, table, query, sql, null);
+    StatementTimeout.select(reader, table, sql, null, slowQuery, reply -> {
+      if (reply.failed()) {
+        countHandler.handle(Future.failedFuture(reply.cause()));
+        return;
+      }
+      Metrics.query(tenantId, table, "page", start, reply.result().getNumRows());
+      PagedResults<T> results = new PagedResults<>();
+      results.setResults(new ArrayList<>());
+      results.setResultInfo(new ResultInfo());
+      List<String> rawResults = new ArrayList<>();
+      try {
+        for (JsonObject row : reply.result().getRows()) {
+          if (rawJson) {
+            rawResults.add(row.getString("jsonb"));
+          } else {
+            results.getResults().add(CollectionWriter.mapper().readValue(row.getString("jsonb"), clazz));
+          }
+          if (exactCount) {
+            results.getResultInfo().setTotalRecords(row.getLong("total_count").intValue());
+          }
+        }
+      } catch (Exception e) {
+        countHandler.handle(Future.failedFuture(e));
+        return;
+      }
+      results.setRawResults(rawJson ? rawResults : null);
+      countHandler.handle(Future.succeededFuture(results));
+    });
+  }
+
+  /**
+   * Builds the 200 response for a collection: sets the items, total_records, first and last properties of the
+   * collection object and streams it into the response body with {@link CollectionWriter}. In raw JSON mode the
+   * stored records are written as they are, in cursor mode the cursor of the next page is added as "next" property.
+   * The response carries an ETag of the body and is replaced by 304 if it matches the If-None-Match request header.
+   *
+   * @param collection empty collection object
+   * @param setItems   setter of the items property of the collection
+   */
+  public static <T, C> Response collectionResponse(C collection, BiConsumer<C, List<T>> setItems, int offset,
+      PagedResults<T> results, Map<String, String> okapiHeaders) throws ReflectiveOperationException {
+
+    int pageSize = results.size();
+    // the items are streamed by CollectionWriter, not serialized with the collection
+    setItems.accept(collection, Collections.emptyList());
+    collection.getClass().getMethod("setTotalRecords", Integer.class)
+      .invoke(collection, results.getResultInfo().getTotalRecords());
+    collection.getClass().getMethod("setFirst", Integer.class).invoke(collection, pageSize == 0 ? 0 : offset + 1);
+    collection.getClass().getMethod("setLast", Integer.class).invoke(collection, pageSize == 0 ? 0 : offset + pageSize);
+
+    CollectionWriter body;
+    try {
+      body = CollectionWriter.write(collection, itemsProperty(collection.getClass()), results, NEXT_CURSOR_PROPERTY);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    if (ETags.matches(ETags.ifNoneMatch(okapiHeaders), body.getEtag())) {
+      return ETags.notModified(body.getEtag());
+    }
+    return jsonResponse(body.getBody(), body.getEtag());
+  }
+
+  /**
+   * Translates a query of the form {@code field==value} on one of the given fields into a condition that can use a
+   * btree index on {@code lower(f_unaccent(jsonb->>'field'))}, as created by schema.json {@code index} and
+   * {@code uniqueIndex} entries with caseSensitive false and removeAccents true. CQL2PgJSON translates {@code ==} to
+   * a regular expression match, which no btree index can serve.
+   *
+   * @return the SQL condition, null if the query has another form or the value contains masking characters
+   */
+  public static String exactMatch(String table, String query, String... fields) {
+    Matcher matcher = EXACT_MATCH.matcher(query == null ? "" : query);
+    if (!matcher.matches() || !Arrays.asList(fields).contains(matcher.group(1))) {
+      return null;
+    }
+    String value = matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+    return String.format("lower(f_unaccent(%s.jsonb->>'%s')) = lower(f_unaccent('%s'))", table, matcher.group(1),
+      value.replace("'", "''"));
+  }
+
+  /**
+   * Same as {@link PgUtil#getById} but in {@link #isRawJson() raw JSON} mode the stored jsonb is returned as is.
+   * The response carries the row version of the record as ETag; if it matches the If-None-Match request header the
+   * document is not read and 304 is returned. The record is read from the {@link ReadReplica} if one is configured
+   * and has caught up with the request.
+   */
+  public static <T> void getById(String table, Class<T> clazz, String id, Map<String, String> okapiHeaders,
+      Context vertxContext, Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+    getById(table, clazz, id, null, okapiHeaders, vertxContext, responseClass, asyncResultHandler);
+  }
+
+  /**
+   * Same as {@link #getById(String, Class, String, Map, Context, Class, Handler)} but looks the record up in the
+   * cache first and stores records read from the database in it. These are always read from the primary.
+   *
+   * @param cache cache of the table, may be null
+   */
+  public static <T> void getById(String table, Class<T> clazz, String id, RecordCache cache, Map<String, String> okapiHeaders,
+      Context vertxContext, Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+    getById(table, clazz, id, cache, null, okapiHeaders, vertxContext, responseClass, asyncResultHandler);
+  }
+
+  /**
+   * Same as {@link #getById(String, Class, String, RecordCache, Map, Context, Class, Handler)} but returns the given
+   * SQL expression instead of the stored record. Such a record is always read from the database and returned as raw
+   * JSON; as it may include other records its ETag is taken from the body, not from the row version.
+   *
+   * @param select SQL expression of the record to return, e.g. by {@link ExpandHelper}, null for the stored jsonb
+   */
+  public static <T> void getById(String table, Class<T> clazz, String id, RecordCache cache, String select,
+      Map<String, String> okapiHeaders, Context vertxContext, Class<? extends ResponseDelegate> responseClass,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    vertxContext.runOnContext(v -> {
+      try {
+        String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+        String ifNoneMatch = ETags.ifNoneMatch(okapiHeaders);
+        boolean cached = select == null && cache != null && cache.isEnabled();
+        if (cached) {
+          RecordCache.Entry entry = cache.get(tenantId, id);
+          if (entry != null) {
+            asyncResultHandler.handle(Future.succeededFuture(itemResponse(clazz, entry.getJson(),
+              ETags.ofVersion(entry.getVersion()), ifNoneMatch, isRawJson(), responseClass)));
+            return;
+          }
+        }
+        long generation = cached ? cache.generation(tenantId, id) : 0;
+        // with the cache the document is always read, a 304 for this client does not help the next one
+        String sql = String.format("SELECT xmin::text, CASE WHEN xmin::text = ANY(?::text[]) THEN NULL ELSE %s::text END"
+          + " FROM %s.%s WHERE %s = ?::uuid", select == null ? "jsonb" : select, PostgresClient.convertToPsqlStandard(tenantId),
+          table, ID_COLUMN);
+        JsonArray params = new JsonArray().add(cached || select != null ? "{}" : versionArray(ETags.tags(ifNoneMatch))).add(id);
+        PostgresClient pgClient = PostgresClient.getInstance(vertxContext.owner(), tenantId);
+        // the cache is filled from the primary only, see ReadReplica
+        AsyncSQLClient client = cached ? pgClient.getClient() : ReadReplica.reader(pgClient, okapiHeaders);
+        long start = System.nanoTime();
+        client.queryWithParams(sql, params, reply -> {
+          try {
+            if (reply.failed()) {
+              log.error(reply.cause().getMessage(), reply.cause());
+              asyncResultHandler.handle(Future.succeededFuture(respond(responseClass, "respond500WithTextPlain",
+                reply.cause().getMessage())));
+              return;
+            }
+            Metrics.query(tenantId, table, "item", start, reply.result().getNumRows());
+            if (reply.result().getNumRows() == 0) {
+              asyncResultHandler.handle(Future.succeededFuture(respond(responseClass, "respond404WithTextPlain", id)));
+              return;
+            }
+            JsonArray row = reply.result().getResults().get(0);
+            if (cached) {
+              cache.put(tenantId, id, row.getString(1), row.getString(0), generation);
+            }
+            String etag = select == null ? ETags.ofVersion(row.getString(0)) : ETags.ofBody(row.getString(1));
+            asyncResultHandler.handle(Future.succeededFuture(itemResponse(clazz, row.getString(1), etag, ifNoneMatch,
+              isRawJson() || select != null, responseClass)));
+          } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            asyncResultHandler.handle(Future.failedFuture(e));
+          }
+        });
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        asyncResultHandler.handle(Future.failedFuture(e));
+      }
+    });
+  }
+
+  /**
+   * @param json the stored record, null if the database already found the version to match If-None-Match
+   */
+  private static <T> Response itemResponse(Class<T> clazz, String json, String etag, String ifNoneMatch, boolean rawJson,
+      Class<? extends ResponseDelegate> responseClass) throws Exception {
+    if (json == null || ETags.matches(ifNoneMatch, etag)) {
+      return ETags.notModified(etag);
+    }
+    if (rawJson) {
+      return jsonResponse(json, etag);
+    }
+    T entity = CollectionWriter.mapper().readValue(json, clazz);
+    Response response = respond(responseClass, "respond200WithApplicationJson", entity);
+    return Response.fromResponse(response).header(HttpHeaders.ETAG, etag).build();
+  }
+
+  /**
+   * @return Postgres array literal of the row versions among the tags, versions are xid numbers
+   */
+  private static String versionArray(List<String> tags) {
+    List<String> versions = new ArrayList<>();
+    for (String tag : tags) {
+      if (tag.matches("\\d{1,10}")) {
+        versions.add(tag);
+      }
+    }
+    return "{" + String.join(",", versions) + "}";
+  }
+
+  /**
+   * Fetches the records with the given ids with a single {@code = ANY(...)} query and responds with a collection of
+   * the records found, in the order of the ids. Ids without a record are skipped.
+   *
+   * @param responseClass the generated response class providing respond400WithTextPlain
+   */
+  public static <T, C> void getByIds(String table, Class<T> clazz, List<String> ids, Supplier<C> newCollection,
+      BiConsumer<C, List<T>> setItems, Map<String, String> okapiHeaders, Context vertxContext,
+      Class<? extends ResponseDelegate> responseClass, Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    vertxContext.runOnContext(v -> {
+      try {
+        String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+        boolean rawJson = isRawJson();
+        PagedResults<T> results = new PagedResults<>();
+        results.setResults(new ArrayList<>());
+        results.setRawResults(rawJson ? new ArrayList<>() : null);
+        results.setResultInfo(new ResultInfo().withTotalRecords(0));
+        if (ids.isEmpty()) {
+          asyncResultHandler.handle(Future.succeededFuture(collectionResponse(newCollection.get(), setItems, 0, results, okapiHeaders)));
+          return;
+        }
+
+        String idArray = "{" + String.join(",", new LinkedHashSet<>(ids)) + "}";
+        String sql = String.format("SELECT jsonb::text FROM %s.%s WHERE %s = ANY(?::uuid[]) ORDER BY array_position(?::uuid[], %s)",
+          PostgresClient.convertToPsqlStandard(tenantId), table, ID_COLUMN, ID_COLUMN);
+        JsonArray params = new JsonArray().add(idArray).add(idArray);
+        AsyncSQLClient reader = ReadReplica.reader(PostgresClient.getInstance(vertxContext.owner(), tenantId), okapiHeaders);
+        long start = System.nanoTime();
+        SlowQueryLog slowQuery = new SlowQueryLog(reader, tenantId, table, null, sql, params);
+        StatementTimeout.select(reader, table, sql, params, slowQuery, reply -> {
+          try {
+            if (reply.failed()) {
+              log.error(reply.cause().getMessage(), reply.cause());
+              asyncResultHandler.handle(Future.succeededFuture(respond(responseClass, "respond400WithTextPlain",
+                reply.cause().getMessage())));
+              return;
+            }
+            Metrics.query(tenantId, table, "batch_get", start, reply.result().getNumRows());
+            for (JsonArray row : reply.result().getResults()) {
+              if (rawJson) {
+                results.getRawResults().add(row.getString(0));
+              } else {
+                results.getResults().add(CollectionWriter.mapper().readValue(row.getString(0), clazz));
+              }
+            }
+            results.getResultInfo().setTotalRecords(results.size());
+            asyncResultHandler.handle(Future.succeededFuture(collectionResponse(newCollection.get(), setItems, 0, results, okapiHeaders)));
+          } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            asyncResultHandler.handle(Future.failedFuture(e));
+          }
+        });
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        asyncResultHandler.handle(Future.failedFuture(e));
+      }
+    });
+  }
+
+  private static Response jsonResponse(Object body, String etag) {
+    return Response.status(Response.Status.OK)
+      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+      .header(HttpHeaders.ETAG, etag)
+      .entity(body)
+      .build();
+  }
+
+  static Response respond(Class<? extends ResponseDelegate> responseClass, String methodName, Object entity)
+    throws ReflectiveOperationException {
+    for (Method method : responseClass.getMethods()) {
+      if (method.getName().equals(methodName) && method.getParameterCount() == 1) {
+        return (Response) method.invoke(null, entity);
+      }
+    }
+    throw new NoSuchMethodException(responseClass.getName() + "." + methodName);
+  }
+
+  /**
+   * @return the JSON name of the list property of a generated collection class, e.g. "vendors"
+   */
+  private static String itemsProperty(Class<?> collectionClass) {
+    return ITEMS_PROPERTIES.computeIfAbsent(collectionClass, clazz -> {
+      for (Field field : clazz.getDeclaredFields()) {
+        JsonProperty property = field.getAnnotation(JsonProperty.class);
+        if (property != null && List.class.isAssignableFrom(field.getType())) {
+          return property.value();
+        }
+      }
+      throw new IllegalArgumentException("No list property in " + clazz.getName());
+    });
+  }
+
+  /**
+   * @return the CQL query without its sortBy clause, null for null
+   */
+  static String withoutSortBy(String query) {
+    if (query == null) {
+      return null;
+    }
+    Matcher matcher = SORT_BY.matcher(query.trim());
+    return matcher.matches() ? matcher.group(1) : query;
+  }
+
+  private static <T> void getPageAfterCursor(PostgresClient pgClient, AsyncSQLClient reader, String tenantId, String table,
+      Class<T> clazz, CQL2PgJSON cql2PgJSON, String query, int limit, TotalRecordsMode totalRecordsMode, String token, String select,
+      String condition, Handler<AsyncResult<PagedResults<T>>> replyHandler) {
+
+    String where;
+    String sortBy = null;
+    boolean descending = false;
+    Cursor cursor = null;
+    try {
+      String filter = query;
+      if (query != null) {
+        Matcher matcher = SORT_BY.matcher(query.trim());
+        if (matcher.matches()) {
+          filter = matcher.group(1);
+          Matcher index = SORT_INDEX.matcher(matcher.group(2).trim());
+          if (!index.matches()) {
+            throw new IllegalArgumentException("Cursor paging supports sorting by a single field only: " + matcher.group(2));
+          }
+          sortBy = index.group(1);
+          descending = index.group(2).toLowerCase().contains("/sort.descending");
+        }
+      }
+      if (condition != null) {
+        where = condition;
+      } else {
+        where = filter == null || filter.trim().isEmpty() ? "true" : cql2PgJSON.cql2pgJson(filter);
+      }
+      if (!Cursor.START.equals(token)) {
+        cursor = Cursor.decode(token);
+        if (sortBy == null ? cursor.getSortBy() != null : !sortBy.equals(cursor.getSortBy())) {
+          throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+      }
+    } catch (Exception e) {
+      replyHandler.handle(Future.failedFuture(e));
+      return;
+    }
+
+    String fullTableName = PostgresClient.convertToPsqlStandard(tenantId) + "." + table;
+    String sortKey = sortBy == null ? null : sortKeyExpression(sortBy);
+    String direction = descending ? "DESC" : "ASC";
+
+    StringBuilder sql = new StringBuilder("SELECT ").append(select == null ? "jsonb" : select).append("::text AS jsonb, ")
+      .append(sortKey == null ? "NULL" : sortKey).append(" AS sort_key, ")
+      .append(ID_COLUMN).append("::text AS row_id FROM ").append(fullTableName)
+      .append(" WHERE (").append(where).append(')');
+    JsonArray params = new JsonArray();
+    if (cursor != null) {
+      String comparison = descending ? " < " : " > ";
+      if (sortKey == null) {
+        sql.append(" AND ").append(ID_COLUMN).append(comparison).append("?::uuid");
+      } else {
+        sql.append(" AND (").append(sortKey).append(", ").append(ID_COLUMN).append(')').append(comparison).append("(?, ?::uuid)");
+        params.add(cursor.getSortKey());
+      }
+      params.add(cursor.getId());
+    }
+    sql.append(" ORDER BY ");
+    if (sortKey != null) {
+      sql.append(sortKey).append(' ').append(direction).append(", ");
+    }
+    sql.append(ID_COLUMN).append(' ').append(direction).append(" LIMIT ").append(limit);
+
+    String sortField = sortBy;
+    boolean rawJson = isRawJson() || select != null;
+    long start = System.nanoTime();
+    SlowQueryLog slowQuery = new SlowQueryLog(reader, tenantId, table, query, sql.toString(), params);
+    StatementTimeout.select(reader, table, sql.toString(), params, slowQuery, reply -> {
+      if (reply.failed()) {
+        replyHandler.handle(Future.failedFuture(reply.cause()));
+        return;
+      }
+      Metrics.query(tenantId, table, "cursor_page", start, reply.result().getNumRows());
+      List<T> items = new ArrayList<>();
+      List<String> rawItems = new ArrayList<>();
+      JsonObject lastRow = null;
+      try {
+        for (JsonObject row : reply.result().getRows()) {
+          if (rawJson) {
+            rawItems.add(row.getString("jsonb"));
+          } else {
+            items.add(CollectionWriter.mapper().readValue(row.getString("jsonb"), clazz));
+          }
+          lastRow = row;
+        }
+      } catch (Exception e) {
+        replyHandler.handle(Future.failedFuture(e));
+        return;
+      }
+
+      PagedResults<T> results = new PagedResults<>();
+      results.setResults(items);
+      results.setRawResults(rawJson ? rawItems : null);
+      results.setResultInfo(new ResultInfo());
+      if (lastRow != null && results.size() == limit) {
+        results.setNextCursor(new Cursor(sortField, lastRow.getString("sort_key"), lastRow.getString("row_id")).encode());
+      }
+      // the total does not change between pages, counting it again on every page would repeat the full count(*)
+      TotalRecordsMode countMode = Cursor.START.equals(token) ? totalRecordsMode : TotalRecordsMode.NONE;
+      countRecords(reader, tenantId, table, query, "WHERE " + where, countMode, count -> {
+        results.getResultInfo().setTotalRecords(count);
+        replyHandler.handle(Future.succeededFuture(results));
+      });
+    });
+  }
+
+  /**
+   * Counts the records matching the where clause with the reader. Reports null if counting is disabled or fails, the latter because
+   * a missing total must not fail the page that has been fetched already.
+   */
+  private static void countRecords(AsyncSQLClient reader, String tenantId, String table,
+      String cql, String whereClause, TotalRecordsMode totalRecordsMode, Handler<Integer> countHandler) {
+
+    if (totalRecordsMode == TotalRecordsMode.NONE) {
+      countHandler.handle(null);
+      return;
+    }
+
+    String fullTableName = PostgresClient.convertToPsqlStandard(tenantId) + "." + table;
+    boolean exactCount = totalRecordsMode == TotalRecordsMode.EXACT;
+    String sql = exactCount
+      ? String.format("SELECT count(*) FROM (SELECT 1 FROM %s %s) AS matches", fullTableName, whereClause)
+      : String.format("EXPLAIN (FORMAT JSON) SELECT jsonb FROM %s %s", fullTableName, whereClause);
+
+    long start = System.nanoTime();
+    SlowQueryLog slowQuery = exactCount ? new SlowQueryLog(reader, tenantId, table, cql, sql, null) : null;
+    StatementTimeout.select(reader, table, sql, null, slowQuery, reply -> {
+      if (reply.failed()) {
+        log.warn("Unable to count total records for " + table, reply.cause());
+        countHandler.handle(null);
+        return;
+      }
+      Metrics.query(tenantId, table, exactCount ? "count" : "estimate", start, -1);
+      Object value = reply.result().getResults().get(0).getValue(0);
+      countHandler.handle(exactCount ? ((Number) value).intValue() : parsePlanRows(value));
+    });
+  }
+
+  private static String sortKeyExpression(String field) {
+    String[] path = field.split("\\.");
+    StringBuilder expression = new StringBuilder("jsonb");
+    for (int i = 0; i < path.length; i++) {
+      expression.append(i == path.length - 1 ? "->>'" : "->'").append(path[i]).append('\'');
+    }
+    return "COALESCE(" + expression + ", '')";
+  }
+
+  private static int parsePlanRows(Object plan) {
+    JsonArray planJson = plan instanceof JsonArray ? (JsonArray) plan : new JsonArray(plan.toString());
+    return planJson.getJsonObject(0).getJsonObject("Plan").getInteger("Plan Rows");
+  }
+}
@@ -0,0 +1,157 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.asyncsql.AsyncSQLClient;
+import io.vertx.ext.asyncsql.PostgreSQLClient;
+import org.folio.rest.RestVerticle;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.TenantTool;
+
+import javax.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * Routes reads to a streaming replica of the database if the environment variable {@code DB_HOST_READER} is set;
+ * {@code DB_PORT_READER} defaults to the port of the primary, user, password and database are those of the primary.
+ * <p>
+ * Read your writes: the responses of writes carry the {@value #LSN_HEADER} header with the write-ahead log position
+ * of the primary after the write. A read that sends it back goes to the primary until the replica has replayed that
+ * position. The replay position of the replica is polled every {@value #POLL_MILLIS} ms; while the replica cannot be
+ * reached all reads go to the primary.
+ * <p>
+ * Reads that fill in-memory caches always go to the primary: a cache filled from a lagging replica would keep the
+ * old record after the change notification has been handled.
+ */
+public class ReadReplica {
+  private static final Logger log = LoggerFactory.getLogger(ReadReplica.class);
+
+  /** RMB passes only headers starting with X-Okapi to the handlers */
+  public static final String LSN_HEADER = "X-Okapi-Vendors-Lsn";
+  static final long POLL_MILLIS = 200;
+  static final long UNKNOWN = -1;
+
+  private static volatile AsyncSQLClient replica;
+  private static volatile long replayedLsn = UNKNOWN;
+
+  private ReadReplica() {
+  }
+
+  /**
+   * Connects to the replica, if one is configured.
+   */
+  public static synchronized void start(Vertx vertx) {
+    String host = System.getenv("DB_HOST_READER");
+    if (replica != null || host == null || host.isEmpty()) {
+      return;
+    }
+    JsonObject config = PostgresClient.getInstance(vertx).getConnectionConfig().copy().put("host", host);
+    String port = System.getenv("DB_PORT_READER");
+    if (port != null && !port.isEmpty()) {
+      config.put("port", Integer.parseInt(port));
+    }
+    replica = PostgreSQLClient.createShared(vertx, config, "mod-vendors-replica");
+    log.info("Reading from replica " + host);
+    vertx.setPeriodic(POLL_MILLIS, id -> replica.query("SELECT pg_last_wal_replay_lsn()::text", reply -> {
+      if (reply.failed() || reply.result().getNumRows() == 0 || reply.result().getResults().get(0).getString(0) == null) {
+        if (replayedLsn != UNKNOWN) {
+          log.warn("Replica unavailable, reading from primary: "
+            + (reply.failed() ? reply.cause().getMessage() : "not in recovery"));
+        }
+        replayedLsn = UNKNOWN;
+        return;
+      }
+      replayedLsn = parseLsn(reply.result().getResults().get(0).getString(0));
+    }));
+  }
+
+  /**
+   * @return the client to read with for the request, the replica if it is available and has replayed the position
+   * in the {@value #LSN_HEADER} header, the primary otherwise
+   */
+  public static AsyncSQLClient reader(PostgresClient primary, Map<String, String> okapiHeaders) {
+    return reader(primary.getClient(), replica, replayedLsn, okapiHeaders);
+  }
+
+  /**
+   * @param replica  null if no replica is configured
+   * @param replayed replay position of the replica, {@link #UNKNOWN} if it is not available
+   */
+  static AsyncSQLClient reader(AsyncSQLClient primary, AsyncSQLClient replica, long replayed,
+      Map<String, String> okapiHeaders) {
+    if (replica == null || replayed == UNKNOWN) {
+      return primary;
+    }
+    String required = header(okapiHeaders);
+    if (required != null) {
+      try {
+        if (parseLsn(required) > replayed) {
+          return primary;
+        }
+      } catch (IllegalArgumentException e) {
+        return primary;
+      }
+    }
+    return replica;
+  }
+
+  /**
+   * @return "replica" for the replica client, "primary" otherwise
+   */
+  public static String poolName(AsyncSQLClient client) {
+    return client != null && client == replica ? "replica" : "primary";
+  }
+
+  /**
+   * @return handler adding the {@value #LSN_HEADER} header to successful write responses if a replica is configured
+   */
+  public static Handler<AsyncResult<Response>> afterWrite(Map<String, String> okapiHeaders, Context vertxContext,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    if (replica == null) {
+      return asyncResultHandler;
+    }
+    return reply -> {
+      if (reply.failed() || reply.result().getStatus() >= 300) {
+        asyncResultHandler.handle(reply);
+        return;
+      }
+      String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(RestVerticle.OKAPI_HEADER_TENANT));
+      PostgresClient.getInstance(vertxContext.owner(), tenantId).select("SELECT pg_current_wal_lsn()::text", lsn -> {
+        if (lsn.failed()) {
+          log.warn("Cannot read the WAL position: " + lsn.cause().getMessage());
+          asyncResultHandler.handle(reply);
+          return;
+        }
+        asyncResultHandler.handle(Future.succeededFuture(Response.fromResponse(reply.result())
+          .header(LSN_HEADER, lsn.result().getResults().get(0).getString(0)).build()));
+      });
+    };
+  }
+
+  private static String header(Map<String, String> okapiHeaders) {
+    for (Map.Entry<String, String> header : okapiHeaders.entrySet()) {
+      if (LSN_HEADER.equalsIgnoreCase(header.getKey())) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param lsn log sequence number as written by Postgres, e.g. 16/B374D848
+   */
+  static long parseLsn(String lsn) {
+    int slash = lsn.indexOf('/');
+    if (slash < 0) {
+      throw new IllegalArgumentException("Invalid LSN " + lsn);
+    }
+    return (Long.parseLong(lsn.substring(0, slash).trim(), 16) << 32) | Long.parseLong(lsn.substring(slash + 1).trim(), 16);
+  }
+}
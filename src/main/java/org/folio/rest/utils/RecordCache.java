@@ -0,0 +1,198 @@
+package org.folio.rest.utils;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process read-through cache of records by (tenant, id).
+ * <p>
+ * Entries hold the stored JSON as UTF-8 bytes together with the row version, so the heap used is about the size of
+ * the documents and no POJOs are kept alive. The cache is bounded by the total size of the documents and entries
+ * expire after a fixed time; least recently used entries are evicted first.
+ * <p>
+ * Writers call {@link #invalidate} after the write completed. A read that started before an invalidation of its record
+ * does not store its result, so an old document read concurrently with a write cannot be put back into the cache.
+ * The generations that tell this are kept for {@value #GENERATION_STRIPES} stripes of the keys, so an invalidation
+ * only discards the concurrent reads of records in the same stripe, not of all records.
+ */
+public class RecordCache implements CacheInvalidation.Listener {
+  private static final Logger log = LoggerFactory.getLogger(RecordCache.class);
+
+  private static final long STATS_LOG_INTERVAL = 10000;
+  static final int GENERATION_STRIPES = 1024;
+
+  private final String name;
+  private final long maxBytes;
+  private final long ttlMillis;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+  private final long[] generations = new long[GENERATION_STRIPES];
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public static class Entry {
+    private final byte[] json;
+    private final String version;
+    private final long expires;
+
+    private Entry(byte[] json, String version, long expires) {
+      this.json = json;
+      this.version = version;
+      this.expires = expires;
+    }
+
+    public String getJson() {
+      return new String(json, StandardCharsets.UTF_8);
+    }
+
+    public String getVersion() {
+      return version;
+    }
+  }
+
+  /**
+   * @param maxBytes  upper bound of the summed document sizes, 0 disables the cache
+   * @param ttlMillis time after which an entry is read from the database again
+   */
+  public RecordCache(String name, long maxBytes, long ttlMillis) {
+    this.name = name;
+    this.maxBytes = maxBytes;
+    this.ttlMillis = ttlMillis;
+  }
+
+  /**
+   * Creates a cache configured by the module arguments {@code <name>CacheMaxBytes} and
+   * {@code <name>CacheTtlSeconds}.
+   */
+  public static RecordCache fromModuleArgs(String name, long defaultMaxBytes, long defaultTtlSeconds) {
+    long maxBytes = Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(name + "CacheMaxBytes", String.valueOf(defaultMaxBytes)));
+    long ttlSeconds = Long.parseLong(MODULE_SPECIFIC_ARGS.getOrDefault(name + "CacheTtlSeconds", String.valueOf(defaultTtlSeconds)));
+    return new RecordCache(name, maxBytes, ttlSeconds * 1000);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isEnabled() {
+    return maxBytes > 0 && ttlMillis > 0;
+  }
+
+  /**
+   * @return the cached entry or null if there is none or it is expired
+   */
+  public synchronized Entry get(String tenantId, String id) {
+    String key = key(tenantId, id);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expires <= System.currentTimeMillis()) {
+      remove(key);
+      evictions++;
+      entry = null;
+    }
+    if (entry == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    if ((hits + misses) % STATS_LOG_INTERVAL == 0) {
+      log.info(name + " cache: " + stats().encode());
+    }
+    return entry;
+  }
+
+  /**
+   * @return the generation to pass to {@link #put} when the database read for a missing entry is done
+   */
+  public synchronized long generation(String tenantId, String id) {
+    return generations[stripe(key(tenantId, id))];
+  }
+
+  /**
+   * Stores the record unless an invalidation of it happened since {@code readGeneration} was taken.
+   */
+  public synchronized void put(String tenantId, String id, String json, String version, long readGeneration) {
+    String key = key(tenantId, id);
+    if (!isEnabled() || readGeneration != generations[stripe(key)]) {
+      return;
+    }
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > maxBytes) {
+      return;
+    }
+    remove(key);
+    entries.put(key, new Entry(bytes, version, System.currentTimeMillis() + ttlMillis));
+    this.bytes += bytes.length;
+    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+    while (this.bytes > maxBytes && eldest.hasNext()) {
+      this.bytes -= eldest.next().getValue().json.length;
+      eldest.remove();
+      evictions++;
+    }
+  }
+
+  @Override
+  public synchronized void invalidate(String tenantId, String id) {
+    String key = key(tenantId, id);
+    generations[stripe(key)]++;
+    remove(key);
+  }
+
+  public synchronized void invalidateTenant(String tenantId) {
+    nextGeneration();
+    String prefix = tenantId + ":";
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Entry> entry = iterator.next();
+      if (entry.getKey().startsWith(prefix)) {
+        bytes -= entry.getValue().json.length;
+        iterator.remove();
+      }
+    }
+  }
+
+  @Override
+  public synchronized void invalidateAll() {
+    nextGeneration();
+    entries.clear();
+    bytes = 0;
+  }
+
+  public synchronized JsonObject stats() {
+    return new JsonObject()
+      .put("hits", hits)
+      .put("misses", misses)
+      .put("evictions", evictions)
+      .put("entries", entries.size())
+      .put("bytes", bytes);
+  }
+
+  private void remove(String key) {
+    Entry removed = entries.remove(key);
+    if (removed != null) {
+      bytes -= removed.json.length;
+    }
+  }
+
+  private void nextGeneration() {
+    for (int i = 0; i < generations.length; i++) {
+      generations[i]++;
+    }
+  }
+
+  private static int stripe(String key) {
+    return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+  }
+
+  private static String key(String tenantId, String id) {
+    return tenantId + ":" + id;
+  }
+}
@@ -0,0 +1,227 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.jaxrs.model.ResultInfo;
+import org.folio.rest.persist.PostgresClient;
+import org.z3950.zing.cql.cql2pgjson.FieldException;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-tenant in-memory copy of a small reference table, e.g. categories.
+ * <p>
+ * Collection GETs with simple queries - {@code cql.allRecords=1} or terms {@code field==value} without wildcards joined
+ * by {@code and} - are answered from the copy: like CQL2PgJSON the whole field is compared, ignoring case and
+ * accents. Word matches with {@code =} and {@code sortBy} are left to Postgres, their results depend on the word
+ * splitting and collation of the database. As in Postgres the records of an unsorted result come in no particular
+ * order. All other queries, cursor paging and tables with more than {@value #MAX_RECORDS} records go to
+ * {@link QueryHelper#getCollection}.
+ * <p>
+ * The copy of a tenant is loaded on first use and dropped when a record of the table changes.
+ */
+public class ReferenceSnapshot implements CacheInvalidation.Listener {
+  private static final Logger log = LoggerFactory.getLogger(ReferenceSnapshot.class);
+
+  static final int MAX_RECORDS = 10000;
+  private static final String ALL_RECORDS = "cql.allRecords=1";
+  private static final Pattern TERM = Pattern.compile("^\\s*([A-Za-z0-9_.]+)\\s*==\\s*(\"((?:[^\"\\\\*?^])*)\"|([^\\s\"()\\\\*?^=<>]+))\\s*");
+  private static final Pattern AND = Pattern.compile("(?i)^and\\s+");
+  private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+  private final String table;
+  private final Map<String, CompletableFuture<List<Entry>>> snapshots = new ConcurrentHashMap<>();
+
+  private static class Entry {
+    private final JsonObject json;
+    private final String raw;
+
+    private Entry(String raw) {
+      this.raw = raw;
+      this.json = new JsonObject(raw);
+    }
+  }
+
+  private static class Term {
+    private final String[] path;
+    private final String value;
+
+    private Term(String field, String value) {
+      this.path = field.split("\\.");
+      this.value = normalize(value);
+    }
+  }
+
+  public ReferenceSnapshot(String table) {
+    this.table = table;
+  }
+
+  /**
+   * Same as {@link QueryHelper#getCollection} for this table, answered from memory if possible. Records are
+   * returned as stored JSON, see {@link PagedResults#getRawResults()}.
+   */
+  public <T> void getCollection(Context vertxContext, String tenantId, Class<T> clazz, String query, int offset,
+      int limit, TotalRecordsMode totalRecordsMode, String cursor, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<PagedResults<T>>> handler) throws FieldException {
+
+    List<Term> terms = cursor == null ? parse(query) : null;
+    if (terms == null) {
+      QueryHelper.getCollection(vertxContext, tenantId, table, clazz, query, offset, limit, totalRecordsMode, cursor,
+        okapiHeaders, handler);
+      return;
+    }
+    snapshot(vertxContext.owner(), tenantId).whenComplete((entries, failure) -> vertxContext.runOnContext(v -> {
+      if (entries == null) {
+        try {
+          QueryHelper.getCollection(vertxContext, tenantId, table, clazz, query, offset, limit, totalRecordsMode, cursor,
+            okapiHeaders, handler);
+        } catch (Exception e) {
+          handler.handle(Future.failedFuture(e));
+        }
+        return;
+      }
+      List<Entry> matches = new ArrayList<>();
+      for (Entry entry : entries) {
+        if (matches(entry.json, terms)) {
+          matches.add(entry);
+        }
+      }
+      List<String> page = new ArrayList<>();
+      for (int i = offset; i < matches.size() && i < (long) offset + limit; i++) {
+        page.add(matches.get(i).raw);
+      }
+      PagedResults<T> results = new PagedResults<>();
+      results.setResults(Collections.emptyList());
+      results.setRawResults(page);
+      results.setResultInfo(new ResultInfo()
+        .withTotalRecords(totalRecordsMode == TotalRecordsMode.NONE ? null : matches.size()));
+      handler.handle(Future.succeededFuture(results));
+    }));
+  }
+
+  /**
+   * Loads the copy of the tenant now instead of on first use.
+   */
+  public void reload(Vertx vertx, String tenantId) {
+    snapshots.remove(tenantId);
+    snapshot(vertx, tenantId);
+  }
+
+  @Override
+  public void invalidate(String tenantId, String id) {
+    snapshots.remove(tenantId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    snapshots.clear();
+  }
+
+  /**
+   * @return the records of the tenant, null if there are too many of them to keep in memory
+   */
+  private CompletableFuture<List<Entry>> snapshot(Vertx vertx, String tenantId) {
+    return snapshots.computeIfAbsent(tenantId, t -> {
+      CompletableFuture<List<Entry>> future = new CompletableFuture<>();
+      String sql = String.format("SELECT jsonb::text FROM %s.%s LIMIT %d",
+        PostgresClient.convertToPsqlStandard(tenantId), table, MAX_RECORDS + 1);
+      PostgresClient.getInstance(vertx, tenantId).select(sql, reply -> {
+        if (reply.failed()) {
+          log.warn("Cannot load " + table + " of " + tenantId + ": " + reply.cause().getMessage());
+          snapshots.remove(tenantId, future);
+          future.completeExceptionally(reply.cause());
+          return;
+        }
+        if (reply.result().getNumRows() > MAX_RECORDS) {
+          log.info(table + " of " + tenantId + " has more than " + MAX_RECORDS + " records, not kept in memory");
+          future.complete(null);
+          return;
+        }
+        List<Entry> entries = new ArrayList<>(reply.result().getNumRows());
+        for (JsonArray row : reply.result().getResults()) {
+          entries.add(new Entry(row.getString(0)));
+        }
+        future.complete(entries);
+      });
+      return future;
+    });
+  }
+
+  /**
+   * @return the terms of the query, null if it cannot be evaluated in memory
+   */
+  private static List<Term> parse(String query) {
+    String where = query == null ? "" : query.trim();
+    if (where.toLowerCase(Locale.ROOT).contains("sortby")) {
+      return null;
+    }
+    List<Term> terms = new ArrayList<>();
+    if (where.isEmpty() || where.equals(ALL_RECORDS)) {
+      return terms;
+    }
+    while (true) {
+      Matcher term = TERM.matcher(where);
+      if (!term.lookingAt()) {
+        return null;
+      }
+      String value = term.group(3) != null ? term.group(3) : term.group(4);
+      terms.add(new Term(term.group(1), value));
+      where = where.substring(term.end());
+      if (where.isEmpty()) {
+        return terms;
+      }
+      Matcher and = AND.matcher(where);
+      if (!and.lookingAt()) {
+        return null;
+      }
+      where = where.substring(and.end());
+    }
+  }
+
+  private static boolean matches(JsonObject json, List<Term> terms) {
+    for (Term term : terms) {
+      String field = normalize(text(json, term.path));
+      if (field == null) {
+        return false;
+      }
+      if (!field.equals(term.value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String text(JsonObject json, String[] path) {
+    Object value = json;
+    for (String name : path) {
+      if (!(value instanceof JsonObject)) {
+        return null;
+      }
+      value = ((JsonObject) value).getValue(name);
+    }
+    return value == null || value instanceof JsonObject || value instanceof JsonArray ? null : value.toString();
+  }
+
+  private static String normalize(String value) {
+    if (value == null) {
+      return null;
+    }
+    return ACCENTS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,119 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.asyncsql.AsyncSQLClient;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs database queries of collection requests that take longer than the {@code slowQueryMillis} module argument
+ * (default {@value #DEFAULT_THRESHOLD_MILLIS}, 0 turns the log off), as one JSON line with tenant, table, CQL query,
+ * SQL, row count and database time. {@link StatementTimeout} measures the time of the query itself, without the
+ * wait for a pool connection and the statement timeout setup.
+ * <p>
+ * The {@code slowQueryExplainRate} module argument (default 0) is the fraction of slow queries that are run again
+ * with {@code EXPLAIN (ANALYZE, BUFFERS)}; the plan is logged in a second line with the same SQL. The explain runs
+ * with the same client and statement timeout as the query, and at most once per
+ * {@code slowQueryExplainIntervalMillis} (default {@value #DEFAULT_EXPLAIN_INTERVAL_MILLIS}) per module instance.
+ * The arguments are read once by {@link #configure()}.
+ */
+public class SlowQueryLog {
+  private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+  static final long DEFAULT_THRESHOLD_MILLIS = 1000;
+  static final long DEFAULT_EXPLAIN_INTERVAL_MILLIS = 60000;
+  private static final AtomicLong lastExplain = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+
+  private static volatile long thresholdMillis = DEFAULT_THRESHOLD_MILLIS;
+  private static volatile double explainRate = 0;
+  private static volatile long explainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EXPLAIN_INTERVAL_MILLIS);
+
+  private final AsyncSQLClient client;
+  private final String tenantId;
+  private final String table;
+  private final String cql;
+  private final String sql;
+  private final JsonArray params;
+
+  /**
+   * @param client the client the query runs with, see {@link ReadReplica#reader}
+   * @param cql    the CQL query of the request, may be null
+   * @param params parameters of the SQL, may be null
+   */
+  public SlowQueryLog(AsyncSQLClient client, String tenantId, String table, String cql, String sql, JsonArray params) {
+    this.client = client;
+    this.tenantId = tenantId;
+    this.table = table;
+    this.cql = cql;
+    this.sql = sql;
+    this.params = params;
+  }
+
+  /**
+   * Reads the module arguments.
+   *
+   * @throws IllegalArgumentException if an argument is malformed
+   */
+  public static void configure() {
+    thresholdMillis = ModuleArgs.longArg("slowQueryMillis", DEFAULT_THRESHOLD_MILLIS, 0);
+    explainRate = ModuleArgs.doubleArg("slowQueryExplainRate", 0, 0, 1);
+    explainIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+      ModuleArgs.longArg("slowQueryExplainIntervalMillis", DEFAULT_EXPLAIN_INTERVAL_MILLIS, 0));
+  }
+
+  /**
+   * Logs the query if it was slow.
+   *
+   * @param rows  number of rows returned
+   * @param nanos time from sending the query to its result
+   */
+  void check(int rows, long nanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+    long threshold = thresholdMillis;
+    if (threshold <= 0 || millis < threshold) {
+      return;
+    }
+    log.warn(new JsonObject()
+      .put("tenant", tenantId)
+      .put("table", table)
+      .put("cql", cql)
+      .put("sql", sql)
+      .put("params", params)
+      .put("rows", rows)
+      .put("millis", millis)
+      .encode());
+    if (ThreadLocalRandom.current().nextDouble() < explainRate && explainAllowed()) {
+      explain();
+    }
+  }
+
+  private void explain() {
+    StatementTimeout.select(client, table, "EXPLAIN (ANALYZE, BUFFERS) " + sql, params, null, reply -> {
+      if (reply.failed()) {
+        log.warn("Cannot explain slow query: " + reply.cause().getMessage());
+        return;
+      }
+      StringBuilder plan = new StringBuilder();
+      for (JsonArray row : reply.result().getResults()) {
+        plan.append(row.getString(0)).append('\n');
+      }
+      log.warn(new JsonObject()
+        .put("tenant", tenantId)
+        .put("table", table)
+        .put("sql", sql)
+        .put("plan", plan.toString())
+        .encode());
+    });
+  }
+
+  private static boolean explainAllowed() {
+    long now = System.nanoTime();
+    long last = lastExplain.get();
+    return now - last >= explainIntervalNanos && lastExplain.compareAndSet(last, now);
+  }
+}
@@ -0,0 +1,122 @@
+package org.folio.rest.utils;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.asyncsql.AsyncSQLClient;
+import io.vertx.ext.sql.ResultSet;
+import io.vertx.ext.sql.SQLConnection;
+
+/**
+ * Runs the queries of collection requests with a Postgres {@code statement_timeout}, so a query that cannot finish
+ * in time, e.g. a leading wildcard on an unindexed field, is cancelled by the database and gives its pool
+ * connection back. A query is not cancelled when the client disconnects, the RMB resource interfaces do not expose
+ * the HTTP connection; the timeout is what bounds it.
+ * <p>
+ * The timeout is set with {@code SET LOCAL} in a transaction around the query, so it ends with the transaction and
+ * never stays on the pooled connection. The transaction is started together with the {@code SET LOCAL} and
+ * committed after the result has been handed on.
+ * <p>
+ * The timeout is the {@code statementTimeoutMillis.<table>} module argument, e.g.
+ * {@code statementTimeoutMillis.vendor=5000}, or else {@code statementTimeoutMillis} (default
+ * {@value #DEFAULT_TIMEOUT_MILLIS}); 0 runs the queries without a timeout.
+ */
+public class StatementTimeout {
+  private static final Logger log = LoggerFactory.getLogger(StatementTimeout.class);
+
+  public static final String PARAMETER = "statementTimeoutMillis";
+  static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+
+  private StatementTimeout() {
+  }
+
+  /**
+   * @return the timeout for queries of the table in milliseconds, 0 for none
+   */
+  public static long millis(String table) {
+    String timeout = MODULE_SPECIFIC_ARGS.get(PARAMETER + "." + table);
+    if (timeout == null) {
+      timeout = MODULE_SPECIFIC_ARGS.getOrDefault(PARAMETER, String.valueOf(DEFAULT_TIMEOUT_MILLIS));
+    }
+    return Long.parseLong(timeout);
+  }
+
+  /**
+   * Runs the query on a connection of the client, with the timeout of the table set for this query only.
+   * The wait for the connection and its use are recorded in {@link Metrics}.
+   *
+   * @param client    the primary or the replica, see {@link ReadReplica#reader}
+   * @param params    parameters of the query, may be null
+   * @param slowQuery checked with the time of the query, may be null
+   */
+  public static void select(AsyncSQLClient client, String table, String sql, JsonArray params,
+      SlowQueryLog slowQuery, Handler<AsyncResult<ResultSet>> handler) {
+
+    JsonArray parameters = params == null ? new JsonArray() : params;
+    long timeout = millis(table);
+    String pool = ReadReplica.poolName(client);
+    long requested = Metrics.connectionRequested(pool);
+    client.getConnection(conn -> {
+      Metrics.connectionTaken(pool, requested, conn.succeeded());
+      if (conn.failed()) {
+        handler.handle(Future.failedFuture(conn.cause()));
+        return;
+      }
+      SQLConnection connection = conn.result();
+      if (timeout <= 0) {
+        long sent = System.nanoTime();
+        connection.queryWithParams(sql, parameters, query -> {
+          release(connection, pool);
+          check(slowQuery, query, sent);
+          handler.handle(query);
+        });
+        return;
+      }
+      connection.execute("BEGIN; SET LOCAL statement_timeout = " + timeout, begin -> {
+        if (begin.failed()) {
+          // nothing to roll back if BEGIN failed, a failed SET LOCAL leaves the transaction aborted
+          endTransaction(connection, pool);
+          handler.handle(Future.failedFuture(begin.cause()));
+          return;
+        }
+        long sent = System.nanoTime();
+        connection.queryWithParams(sql, parameters, query -> {
+          try {
+            check(slowQuery, query, sent);
+            handler.handle(query);
+          } finally {
+            endTransaction(connection, pool);
+          }
+        });
+      });
+    });
+  }
+
+  private static void check(SlowQueryLog slowQuery, AsyncResult<ResultSet> query, long sent) {
+    if (slowQuery != null && query.succeeded()) {
+      slowQuery.check(query.result().getNumRows(), System.nanoTime() - sent);
+    }
+  }
+
+  /**
+   * Ends the read-only transaction, COMMIT also rolls back an aborted one, and gives the connection back.
+   */
+  private static void endTransaction(SQLConnection connection, String pool) {
+    connection.execute("COMMIT", commit -> {
+      if (commit.failed()) {
+        log.warn("Cannot end transaction: " + commit.cause().getMessage());
+      }
+      release(connection, pool);
+    });
+  }
+
+  private static void release(SQLConnection connection, String pool) {
+    connection.close();
+    Metrics.connectionReturned(pool);
+  }
+}
@@ -0,0 +1,256 @@
+package org.folio.rest.utils;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.jaxrs.model.VendorSuggestion;
+import org.folio.rest.persist.PostgresClient;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead over the code and name of the records of a table: returns the records whose code or name starts with a
+ * prefix, ignoring case and accents, code matches first and each group ordered by the matched property.
+ * <p>
+ * Per tenant the id, code and name of all records are kept in sorted maps, loaded on first use. A changed record is
+ * marked stale and read again with the next lookup of the tenant, so a change costs one small query instead of a
+ * reload. Tenants with more records than the {@code <name>SuggestMaxRecords} module argument (default
+ * {@value #DEFAULT_MAX_RECORDS}, 0 turns the maps off) are answered by prefix queries on the
+ * {@code vendor_suggest.sql} indexes.
+ * <p>
+ * Both paths compare the same keys: accents are removed before lower casing, like {@code lower(f_unaccent(...))}, and
+ * the letters that {@code unaccent} folds without a combining mark, e.g. l with stroke and sharp s, are folded the
+ * same way. Matches with the same key are ordered by id.
+ */
+public class SuggestionIndex implements CacheInvalidation.Listener {
+  private static final Logger log = LoggerFactory.getLogger(SuggestionIndex.class);
+
+  static final int DEFAULT_MAX_RECORDS = 100000;
+  private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+  private static final String KEY_SEPARATOR = "\u0000";
+  private static final String KEY_END = "\uffff";
+  /** letters folded by the unaccent rules of Postgres that have no canonical decomposition */
+  private static final String[][] FOLDED = {
+    {"\u00df", "ss"}, {"\u00e6", "ae"}, {"\u0153", "oe"}, {"\u00f8", "o"}, {"\u0142", "l"}, {"\u0111", "d"},
+    {"\u0127", "h"}, {"\u0131", "i"}, {"\u0167", "t"}, {"\u00f0", "d"}, {"\u00fe", "th"}};
+
+  private final String table;
+  private final int maxRecords;
+  private final Map<String, CompletableFuture<Entries>> tenants = new ConcurrentHashMap<>();
+
+  private static class Entries {
+    private final Map<String, VendorSuggestion> byId = new HashMap<>();
+    private final TreeMap<String, VendorSuggestion> byCode = new TreeMap<>();
+    private final TreeMap<String, VendorSuggestion> byName = new TreeMap<>();
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    private synchronized void put(String id, String code, String name) {
+      remove(id);
+      VendorSuggestion suggestion = new VendorSuggestion().withId(id).withCode(code).withName(name);
+      byId.put(id, suggestion);
+      if (code != null) {
+        byCode.put(normalize(code) + KEY_SEPARATOR + id, suggestion);
+      }
+      if (name != null) {
+        byName.put(normalize(name) + KEY_SEPARATOR + id, suggestion);
+      }
+    }
+
+    private synchronized void remove(String id) {
+      VendorSuggestion old = byId.remove(id);
+      if (old != null) {
+        if (old.getCode() != null) {
+          byCode.remove(normalize(old.getCode()) + KEY_SEPARATOR + id);
+        }
+        if (old.getName() != null) {
+          byName.remove(normalize(old.getName()) + KEY_SEPARATOR + id);
+        }
+      }
+    }
+
+    private synchronized List<VendorSuggestion> lookup(String prefix, int limit) {
+      String start = normalize(prefix);
+      Map<String, VendorSuggestion> matches = new LinkedHashMap<>();
+      for (TreeMap<String, VendorSuggestion> entries : Arrays.asList(byCode, byName)) {
+        for (VendorSuggestion suggestion : entries.subMap(start, start + KEY_END).values()) {
+          if (matches.size() >= limit) {
+            break;
+          }
+          matches.putIfAbsent(suggestion.getId(), suggestion);
+        }
+      }
+      return new ArrayList<>(matches.values());
+    }
+  }
+
+  /**
+   * @param name prefix of the module argument, e.g. "vendor" for vendorSuggestMaxRecords
+   */
+  public SuggestionIndex(String table, String name) {
+    this.table = table;
+    this.maxRecords = Integer.parseInt(MODULE_SPECIFIC_ARGS.getOrDefault(name + "SuggestMaxRecords",
+      String.valueOf(DEFAULT_MAX_RECORDS)));
+  }
+
+  /**
+   * Looks up the first records whose code or name starts with the prefix.
+   */
+  public void suggest(Context vertxContext, String tenantId, String prefix, int limit,
+      Handler<AsyncResult<List<VendorSuggestion>>> handler) {
+
+    if (maxRecords <= 0) {
+      query(vertxContext.owner(), tenantId, prefix, limit, handler);
+      return;
+    }
+    entries(vertxContext.owner(), tenantId).whenComplete((entries, failure) -> vertxContext.runOnContext(v -> {
+      if (entries == null) {
+        query(vertxContext.owner(), tenantId, prefix, limit, handler);
+        return;
+      }
+      refresh(vertxContext.owner(), tenantId, entries, refreshed -> {
+        if (refreshed.failed()) {
+          log.warn("Cannot refresh " + table + " suggestions of " + tenantId + ": " + refreshed.cause().getMessage());
+          tenants.remove(tenantId);
+          query(vertxContext.owner(), tenantId, prefix, limit, handler);
+          return;
+        }
+        handler.handle(Future.succeededFuture(entries.lookup(prefix, limit)));
+      });
+    }));
+  }
+
+  @Override
+  public void invalidate(String tenantId, String id) {
+    CompletableFuture<Entries> future = tenants.get(tenantId);
+    if (future == null) {
+      return;
+    }
+    Entries entries = future.getNow(null);
+    if (id == null || !future.isDone()) {
+      // a load in progress may or may not see the change
+      tenants.remove(tenantId, future);
+    } else if (entries != null) {
+      entries.stale.add(id);
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    tenants.clear();
+  }
+
+  /**
+   * @return the records of the tenant, null if there are too many of them to keep in memory
+   */
+  private CompletableFuture<Entries> entries(Vertx vertx, String tenantId) {
+    return tenants.computeIfAbsent(tenantId, t -> {
+      CompletableFuture<Entries> future = new CompletableFuture<>();
+      String sql = String.format("SELECT _id::text, jsonb->>'code', jsonb->>'name' FROM %s.%s LIMIT %d",
+        PostgresClient.convertToPsqlStandard(tenantId), table, maxRecords + 1);
+      PostgresClient.getInstance(vertx, tenantId).select(sql, reply -> {
+        if (reply.failed()) {
+          log.warn("Cannot load " + table + " suggestions of " + tenantId + ": " + reply.cause().getMessage());
+          tenants.remove(tenantId, future);
+          future.complete(null);
+          return;
+        }
+        if (reply.result().getNumRows() > maxRecords) {
+          log.info(table + " of " + tenantId + " has more than " + maxRecords + " records, suggestions not kept in memory");
+          future.complete(null);
+          return;
+        }
+        Entries entries = new Entries();
+        for (JsonArray row : reply.result().getResults()) {
+          entries.put(row.getString(0), row.getString(1), row.getString(2));
+        }
+        future.complete(entries);
+      });
+      return future;
+    });
+  }
+
+  /**
+   * Reads the stale records again.
+   */
+  private void refresh(Vertx vertx, String tenantId, Entries entries, Handler<AsyncResult<Void>> handler) {
+    if (entries.stale.isEmpty()) {
+      handler.handle(Future.succeededFuture());
+      return;
+    }
+    List<String> ids = new ArrayList<>(entries.stale);
+    entries.stale.removeAll(ids);
+    String sql = String.format("SELECT _id::text, jsonb->>'code', jsonb->>'name' FROM %s.%s WHERE _id = ANY(?::uuid[])",
+      PostgresClient.convertToPsqlStandard(tenantId), table);
+    PostgresClient.getInstance(vertx, tenantId).select(sql, new JsonArray().add("{" + String.join(",", ids) + "}"), reply -> {
+      if (reply.failed()) {
+        handler.handle(Future.failedFuture(reply.cause()));
+        return;
+      }
+      ids.forEach(entries::remove);
+      for (JsonArray row : reply.result().getResults()) {
+        entries.put(row.getString(0), row.getString(1), row.getString(2));
+      }
+      handler.handle(Future.succeededFuture());
+    });
+  }
+
+  /**
+   * Looks the prefix up with the indexes of {@code vendor_suggest.sql}.
+   */
+  private void query(Vertx vertx, String tenantId, String prefix, int limit,
+      Handler<AsyncResult<List<VendorSuggestion>>> handler) {
+
+    String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    String lookup = "(SELECT _id, jsonb, %1$d AS matched, lower(f_unaccent(jsonb->>'%4$s')) COLLATE \"C\" AS sort_key"
+      + " FROM %2$s.%3$s WHERE lower(f_unaccent(jsonb->>'%4$s')) COLLATE \"C\" LIKE lower(f_unaccent(?)) || '%%'"
+      + " ORDER BY sort_key, _id LIMIT %5$d)";
+    String schema = PostgresClient.convertToPsqlStandard(tenantId);
+    String sql = "SELECT _id::text, jsonb->>'code', jsonb->>'name' FROM ("
+      + String.format(lookup, 0, schema, table, "code", limit) + " UNION ALL "
+      + String.format(lookup, 1, schema, table, "name", limit) + ") AS matches ORDER BY matched, sort_key, _id";
+    PostgresClient.getInstance(vertx, tenantId).select(sql, new JsonArray().add(pattern).add(pattern), reply -> {
+      if (reply.failed()) {
+        handler.handle(Future.failedFuture(reply.cause()));
+        return;
+      }
+      Map<String, VendorSuggestion> matches = new LinkedHashMap<>();
+      for (JsonArray row : reply.result().getResults()) {
+        if (matches.size() < limit) {
+          matches.putIfAbsent(row.getString(0),
+            new VendorSuggestion().withId(row.getString(0)).withCode(row.getString(1)).withName(row.getString(2)));
+        }
+      }
+      handler.handle(Future.succeededFuture(new ArrayList<>(matches.values())));
+    });
+  }
+
+  private static String normalize(String value) {
+    String normalized = ACCENTS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+      .toLowerCase(Locale.ROOT);
+    for (String[] folded : FOLDED) {
+      if (normalized.contains(folded[0])) {
+        normalized = normalized.replace(folded[0], folded[1]);
+      }
+    }
+    return normalized;
+  }
+}
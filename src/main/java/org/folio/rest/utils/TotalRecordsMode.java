@@ -0,0 +1,31 @@
+package org.folio.rest.utils;
+
+import java.util.Locale;
+
+/**
+ * Controls how the total_records property of a collection response is calculated.
+ */
+public enum TotalRecordsMode {
+  /** count(*) over the whole CQL result set */
+  EXACT,
+  /** row estimate taken from the Postgres query planner */
+  ESTIMATED,
+  /** no counting at all, total_records is omitted */
+  NONE;
+
+  /**
+   * @param value the "totalRecords" query parameter, may be null
+   * @return the matching mode, {@link #EXACT} if no value is given
+   * @throws IllegalArgumentException if the value is no mode
+   */
+  public static TotalRecordsMode fromValue(String value) {
+    if (value == null || value.isEmpty()) {
+      return EXACT;
+    }
+    try {
+      return valueOf(value.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid totalRecords value " + value + ", expected exact, estimated or none", e);
+    }
+  }
+}
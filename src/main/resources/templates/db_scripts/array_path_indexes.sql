@@ -0,0 +1,21 @@
+-- GIN jsonb_path_ops indexes on arrays inside the records, for the containment (@>) predicates of
+-- ContainmentQuery.java. Each entry is (table, top level array property); declare the paths below the array in
+-- the ContainmentQuery of the table.
+DO $$
+DECLARE
+  entry text[];
+BEGIN
+  FOREACH entry SLICE 1 IN ARRAY ARRAY[
+      ['vendor', 'accounts'],
+      ['vendor', 'contacts'],
+      ['vendor', 'phone_numbers'],
+      ['vendor', 'vendor_currencies']] LOOP
+    EXECUTE format('CREATE INDEX IF NOT EXISTS %s ON ${myuniversity}_${mymodule}.%I USING GIN ((jsonb->%L) jsonb_path_ops)',
+      entry[1] || '_' || entry[2] || '_path_idx', entry[1], entry[2]);
+  END LOOP;
+END $$;
+
+-- free text arrays, queried with the word match of CQL2PgJSON
+DROP INDEX IF EXISTS ${myuniversity}_${mymodule}.vendor_addresses_path_idx;
+DROP INDEX IF EXISTS ${myuniversity}_${mymodule}.vendor_aliases_path_idx;
+DROP INDEX IF EXISTS ${myuniversity}_${mymodule}.vendor_emails_path_idx;
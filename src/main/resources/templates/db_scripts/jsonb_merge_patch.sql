@@ -0,0 +1,22 @@
+-- JSON merge patch (RFC 7396): objects are merged recursively, null removes a member,
+-- any other value replaces the target value.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.jsonb_merge_patch(target jsonb, patch jsonb)
+RETURNS jsonb AS $$
+BEGIN
+  IF patch IS NULL OR jsonb_typeof(patch) <> 'object' THEN
+    RETURN patch;
+  END IF;
+  IF target IS NULL OR jsonb_typeof(target) <> 'object' THEN
+    target := '{}'::jsonb;
+  END IF;
+  RETURN (
+    SELECT COALESCE(jsonb_object_agg(merged.key, merged.value), '{}'::jsonb)
+    FROM (
+      SELECT t.key, t.value FROM jsonb_each(target) t WHERE NOT patch ? t.key
+      UNION ALL
+      SELECT p.key, ${myuniversity}_${mymodule}.jsonb_merge_patch(target -> p.key, p.value)
+      FROM jsonb_each(patch) p WHERE jsonb_typeof(p.value) <> 'null'
+    ) merged
+  );
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
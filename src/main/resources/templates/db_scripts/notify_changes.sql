@@ -0,0 +1,29 @@
+-- Publishes every change of a record on the mod_vendors_changes channel so that all module instances
+-- can evict it from their in-memory caches. The payload is {"tenant": ..., "schema": ..., "table": ..., "id": ...};
+-- the tenant id keeps its case, the schema name is lower case.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.notify_change() RETURNS TRIGGER AS $$
+DECLARE
+  changed_id uuid;
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    changed_id := OLD._id;
+  ELSE
+    changed_id := NEW._id;
+  END IF;
+  PERFORM pg_notify('mod_vendors_changes',
+    json_build_object('tenant', '${myuniversity}', 'schema', TG_TABLE_SCHEMA, 'table', TG_TABLE_NAME, 'id', changed_id)::text);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+  t text;
+BEGIN
+  FOREACH t IN ARRAY ARRAY['account', 'address', 'agreement', 'alias', 'category', 'contact', 'email', 'interface',
+      'phone_number', 'url', 'vendor', 'vendor_type'] LOOP
+    EXECUTE format('DROP TRIGGER IF EXISTS notify_change ON ${myuniversity}_${mymodule}.%I', t);
+    EXECUTE format('CREATE TRIGGER notify_change AFTER INSERT OR UPDATE OR DELETE ON ${myuniversity}_${mymodule}.%I'
+      || ' FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.notify_change()', t);
+  END LOOP;
+END $$;
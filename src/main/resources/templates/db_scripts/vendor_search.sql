@@ -0,0 +1,14 @@
+-- Full text search over vendor name, code, aliases and description, see FullTextSearch.java. The words are indexed
+-- lower case and without accents; name and code rank highest, then former names, then the description.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.vendor_search_text(vendor jsonb) RETURNS tsvector AS $$
+  SELECT setweight(to_tsvector('simple', ${myuniversity}_${mymodule}.f_unaccent(
+           coalesce(vendor->>'name', '') || ' ' || coalesce(vendor->>'code', ''))), 'A')
+      || setweight(to_tsvector('simple', ${myuniversity}_${mymodule}.f_unaccent(coalesce(
+           (SELECT string_agg(alias->>'value', ' ')
+              FROM jsonb_array_elements(CASE WHEN jsonb_typeof(vendor->'aliases') = 'array'
+                                             THEN vendor->'aliases' ELSE '[]'::jsonb END) AS alias), ''))), 'B')
+      || setweight(to_tsvector('simple', ${myuniversity}_${mymodule}.f_unaccent(coalesce(vendor->>'description', ''))), 'C');
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE INDEX IF NOT EXISTS vendor_search_text_idx ON ${myuniversity}_${mymodule}.vendor
+  USING GIN (${myuniversity}_${mymodule}.vendor_search_text(jsonb));
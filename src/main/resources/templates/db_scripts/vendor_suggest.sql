@@ -0,0 +1,6 @@
+-- Prefix lookups of GET /vendor-storage/vendors/suggest, see SuggestionIndex.java. With the "C" collation the btree
+-- serves both LIKE 'prefix%' and the ORDER BY of the lookup, whatever the collation of the database is.
+CREATE INDEX IF NOT EXISTS vendor_code_prefix_idx ON ${myuniversity}_${mymodule}.vendor
+  ((lower(${myuniversity}_${mymodule}.f_unaccent(jsonb->>'code')) COLLATE "C"));
+CREATE INDEX IF NOT EXISTS vendor_name_prefix_idx ON ${myuniversity}_${mymodule}.vendor
+  ((lower(${myuniversity}_${mymodule}.f_unaccent(jsonb->>'name')) COLLATE "C"));
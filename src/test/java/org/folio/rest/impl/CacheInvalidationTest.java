@@ -0,0 +1,54 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.persist.PostgresClient;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+
+public class CacheInvalidationTest extends TestBase {
+
+  private final Logger logger = LoggerFactory.getLogger(CacheInvalidationTest.class);
+
+  private static final String VENDORS_ENDPOINT = "/vendor-storage/vendors";
+  private static final String VENDOR_ENDPOINT = "/vendor-storage/vendors/{id}";
+
+  @Test
+  public void testChangeByOtherInstanceEvictsCachedVendor() throws Exception {
+    String id = createEntity(VENDORS_ENDPOINT, getFile("vendor.sample"));
+    try {
+      logger.info("--- mod-vendors-test: caching vendor " + id);
+      getDataById(VENDOR_ENDPOINT, id).then().statusCode(200).body("name", equalTo("GOBI"));
+
+      logger.info("--- mod-vendors-test: changing vendor in the database, bypassing this instance");
+      String tenantId = TENANT_HEADER.getValue();
+      String sql = String.format("UPDATE %s.vendor SET jsonb = jsonb_set(jsonb, '{name}', '\"Changed elsewhere\"') WHERE _id = ?::uuid",
+        PostgresClient.convertToPsqlStandard(tenantId));
+      CompletableFuture<Integer> updated = new CompletableFuture<>();
+      PostgresClient.getInstance(StorageTestSuite.getVertx(), tenantId).execute(sql, new JsonArray().add(id), reply -> {
+        if (reply.succeeded()) {
+          updated.complete(reply.result().getUpdated());
+        } else {
+          updated.completeExceptionally(reply.cause());
+        }
+      });
+      assertEquals(Integer.valueOf(1), updated.get(10, TimeUnit.SECONDS));
+
+      // the notification arrives asynchronously, the cache TTL is far longer than the time waited here
+      String name = null;
+      for (int i = 0; i < 50 && !"Changed elsewhere".equals(name); i++) {
+        Thread.sleep(100);
+        name = getDataById(VENDOR_ENDPOINT, id).then().statusCode(200).extract().path("name");
+      }
+      assertEquals("Changed elsewhere", name);
+    } finally {
+      deleteDataSuccess(VENDOR_ENDPOINT, id);
+    }
+  }
+}
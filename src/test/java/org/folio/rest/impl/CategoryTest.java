@@ -24,6 +24,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static com.jayway.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
@@ -132,6 +135,27 @@ public class CategoryTest {
         .statusCode(200)
         .body("id", equalTo(dataSampleId));
 
+      logger.info("--- mod-vendors-test: Querying categories held in memory ... ");
+      getData("/vendor-storage/categories?query=value==accounting").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1))
+        .body("categories[0].id", equalTo(dataSampleId));
+      getData("/vendor-storage/categories?query=value=Gift").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(0));
+
+      logger.info("--- mod-vendors-test: Comparing in-memory and database query results ... ");
+      for (String value : new String[] {"Customer Service", "Service Customer", "Caf\u00e9 Orders"}) {
+        postData("/vendor-storage/categories", new JSONObject().put("value", value).toString()).then()
+          .log().ifValidationFails()
+          .statusCode(201);
+      }
+      for (String query : new String[] {"cql.allRecords=1", "value==accounting", "value==ACCOUNTING",
+          "value==\"customer service\"", "value==\"cafe orders\"", "value==\"CAF\u00c9 ORDERS\"", "value==service",
+          "value==accounting and id==" + dataSampleId}) {
+        assertSameAsDatabase(context, query);
+      }
+
       logger.info("--- mod-vendors-test: Editing category with ID: "+ dataSampleId);
       JSONObject catJSON = new JSONObject(dataSample);
       catJSON.put("id", dataSampleId);
@@ -144,6 +168,9 @@ public class CategoryTest {
       getDataById("/vendor-storage/categories", dataSampleId).then()
         .statusCode(200).log().ifValidationFails()
         .body("value", equalTo("Gift"));
+      getData("/vendor-storage/categories?query=value=Gift sortBy value").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
 
       logger.info("--- mod-vendors-test: Deleting category with ID ... ");
       deleteData("/vendor-storage/categories", dataSampleId).then().log().ifValidationFails()
@@ -156,6 +183,21 @@ public class CategoryTest {
     async.complete();
   }
 
+  /**
+   * Compares the categories matching the query with those Postgres finds, the parentheses keep the query away from
+   * the in-memory copy.
+   */
+  private void assertSameAsDatabase(TestContext context, String query) {
+    context.assertEquals(categoryIds(query), categoryIds("(" + query + ")"), query);
+  }
+
+  private Set<String> categoryIds(String query) {
+    List<String> ids = getData("/vendor-storage/categories?limit=100&query=" + query).then().log().ifValidationFails()
+      .statusCode(200)
+      .extract().path("categories.id");
+    return new HashSet<>(ids);
+  }
+
   private void prepareTenant() {
     String tenants = "{\"module_to\":\"" + moduleId + "\"}";
     given()
@@ -0,0 +1,323 @@
+package org.folio.rest.impl;
+
+import io.restassured.http.Header;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.utils.SyntheticData;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.utils.TenantApiTestUtil.deleteTenant;
+import static org.folio.rest.utils.TenantApiTestUtil.prepareTenant;
+
+/**
+ * End-to-end load test: starts the module with embedded Postgres like {@link StorageTestSuite}, loads a tenant with
+ * {@link SyntheticData}, then drives a mix of requests at a fixed concurrency and writes throughput and latency
+ * percentiles per endpoint as JSON.
+ * <p>
+ * Each of the {@code concurrency} clients sends its next request as soon as the response of the previous one has
+ * been read (closed loop), so the throughput is what the module manages at that concurrency. Vendors are picked
+ * with a skew towards low indexes, like the few vendors most orders refer to. Requests during the warm-up are not
+ * recorded.
+ * <p>
+ * Arguments are {@code name=value} pairs, see {@link #DEFAULTS}; run with
+ * {@code mvn -Pload-test -DskipTests verify -Dloadtest.args="vendors=20000 seconds=30"}.
+ */
+public class LoadTestRunner {
+  private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+  private static final Header LOAD_TEST_TENANT_HEADER = new Header(OKAPI_HEADER_TENANT, "loadtest");
+
+  static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+  static {
+    DEFAULTS.put("vendors", "100000");
+    DEFAULTS.put("seed", "1");
+    DEFAULTS.put("concurrency", "32");
+    DEFAULTS.put("warmupSeconds", "15");
+    DEFAULTS.put("seconds", "60");
+    // relative weights of the endpoints
+    DEFAULTS.put("mix", "vendor_by_id=40,vendor_by_code=15,vendor_search=20,contact_by_id=20,vendor_put=5");
+    DEFAULTS.put("output", "target/load-test/results.json");
+    // name of the run in the results, e.g. the release
+    DEFAULTS.put("label", "");
+  }
+
+  private final Map<String, String> config;
+  private final SyntheticData data;
+  private final Map<String, Integer> mix = new LinkedHashMap<>();
+  private final Map<String, Samples> samples = new LinkedHashMap<>();
+  private final SplittableRandom random;
+  private HttpClient client;
+  private volatile boolean recording;
+  private volatile boolean stopping;
+
+  LoadTestRunner(Map<String, String> config) {
+    this.config = config;
+    int vendors = Integer.parseInt(config.get("vendors"));
+    long seed = Long.parseLong(config.get("seed"));
+    data = new SyntheticData(seed, vendors, vendors / 2, 50);
+    random = new SplittableRandom(seed);
+    for (String weight : config.get("mix").split(",")) {
+      String[] nameWeight = weight.split("=");
+      mix.put(nameWeight[0].trim(), Integer.parseInt(nameWeight[1].trim()));
+      samples.put(nameWeight[0].trim(), new Samples());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> config = new LinkedHashMap<>(DEFAULTS);
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (equals < 0 || !DEFAULTS.containsKey(arg.substring(0, equals))) {
+        throw new IllegalArgumentException("Unknown argument " + arg + ", expected name=value with a name of " + DEFAULTS.keySet());
+      }
+      config.put(arg.substring(0, equals), arg.substring(equals + 1));
+    }
+    StorageTestSuite.before();
+    try {
+      new LoadTestRunner(config).run();
+    } finally {
+      StorageTestSuite.after();
+    }
+    // threads of the embedded database and RMB may be left
+    System.exit(0);
+  }
+
+  void run() throws Exception {
+    prepareTenant(LOAD_TEST_TENANT_HEADER, false);
+    Vertx vertx = Vertx.vertx();
+    try {
+      log.info("Loading " + data.getVendors() + " vendors");
+      data.load(StorageTestSuite.getVertx(), LOAD_TEST_TENANT_HEADER.getValue()).get(1, TimeUnit.HOURS);
+
+      int concurrency = Integer.parseInt(config.get("concurrency"));
+      long warmupMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(config.get("warmupSeconds")));
+      long millis = TimeUnit.SECONDS.toMillis(Long.parseLong(config.get("seconds")));
+      client = vertx.createHttpClient(new HttpClientOptions()
+        .setDefaultHost("localhost")
+        .setDefaultPort(StorageTestSuite.storageUrl("/").getPort())
+        .setKeepAlive(true)
+        .setMaxPoolSize(concurrency));
+
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      AtomicInteger running = new AtomicInteger(concurrency);
+      log.info(String.format("Running %s at concurrency %d for %d s after %d s warm-up", mix, concurrency,
+        TimeUnit.MILLISECONDS.toSeconds(millis), TimeUnit.MILLISECONDS.toSeconds(warmupMillis)));
+      // all clients share one event loop, samples and random are not thread-safe
+      vertx.runOnContext(v -> {
+        vertx.setTimer(Math.max(1, warmupMillis), id -> {
+          recording = true;
+          vertx.setTimer(Math.max(1, millis), stop -> stopping = true);
+        });
+        for (int i = 0; i < concurrency; i++) {
+          next(() -> {
+            if (running.decrementAndGet() == 0) {
+              done.complete(null);
+            }
+          });
+        }
+      });
+      done.get(millis + warmupMillis + TimeUnit.MINUTES.toMillis(5), TimeUnit.MILLISECONDS);
+
+      JsonObject results = results(millis);
+      Path output = Paths.get(config.get("output"));
+      if (output.getParent() != null) {
+        Files.createDirectories(output.getParent());
+      }
+      Files.write(output, results.encodePrettily().getBytes(StandardCharsets.UTF_8));
+      log.info("Load test results written to " + output.toAbsolutePath() + "\n" + results.encodePrettily());
+    } finally {
+      vertx.close();
+      deleteTenant(LOAD_TEST_TENANT_HEADER);
+    }
+  }
+
+  /**
+   * Sends the next request of one client, or calls finished if the run is over.
+   */
+  private void next(Runnable finished) {
+    if (stopping) {
+      finished.run();
+      return;
+    }
+    String endpoint = pickEndpoint();
+    HttpMethod method = HttpMethod.GET;
+    String body = null;
+    String uri;
+    switch (endpoint) {
+      case "vendor_by_id":
+        uri = "/vendor-storage/vendors/" + data.vendorId(pickVendor());
+        break;
+      case "vendor_by_code":
+        uri = "/vendor-storage/vendors?query=" + encode("code==\"" + data.vendor(pickVendor()).getString("code") + "\"");
+        break;
+      case "vendor_search":
+        uri = search();
+        break;
+      case "contact_by_id":
+        uri = "/vendor-storage/contacts/" + data.contactId(random.nextInt(data.getContacts()));
+        break;
+      case "vendor_put":
+        int index = pickVendor();
+        method = HttpMethod.PUT;
+        uri = "/vendor-storage/vendors/" + data.vendorId(index);
+        body = data.vendor(index).put("description", "changed by load test " + random.nextInt()).encode();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown endpoint " + endpoint + " in mix");
+    }
+
+    boolean record = recording;
+    long start = System.nanoTime();
+    HttpClientRequest request = client.request(method, uri, response -> response.bodyHandler(buffer -> {
+      if (record) {
+        samples.get(endpoint).add(System.nanoTime() - start, response.statusCode() >= 300);
+      }
+      next(finished);
+    }));
+    request.exceptionHandler(e -> {
+      log.warn(endpoint + " " + uri + " failed: " + e.getMessage());
+      if (record) {
+        samples.get(endpoint).add(System.nanoTime() - start, true);
+      }
+      next(finished);
+    });
+    request.putHeader(LOAD_TEST_TENANT_HEADER.getName(), LOAD_TEST_TENANT_HEADER.getValue())
+      .putHeader("Accept", "application/json, text/plain");
+    if (body == null) {
+      request.end();
+    } else {
+      request.putHeader("Content-Type", "application/json").end(body);
+    }
+  }
+
+  private String pickEndpoint() {
+    int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+    int pick = random.nextInt(total);
+    for (Map.Entry<String, Integer> weight : mix.entrySet()) {
+      pick -= weight.getValue();
+      if (pick < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalStateException("Empty mix");
+  }
+
+  /**
+   * @return index of a vendor, half of the picks fall on the first eighth of the vendors
+   */
+  private int pickVendor() {
+    double uniform = random.nextDouble();
+    return (int) (uniform * uniform * uniform * data.getVendors());
+  }
+
+  private String search() {
+    String word = data.vendor(random.nextInt(data.getVendors())).getString("name").split(" ")[0];
+    switch (random.nextInt(3)) {
+      case 0:
+        return "/vendor-storage/vendors?limit=30&query=" + encode("name=\"" + word + "*\"");
+      case 1:
+        return "/vendor-storage/vendors?limit=30&offset=" + random.nextInt(10) * 30 + "&query="
+          + encode("vendor_status==Active sortBy name");
+      default:
+        return "/vendor-storage/vendors?limit=30&search=" + encode(word.toLowerCase(Locale.ROOT));
+    }
+  }
+
+  private JsonObject results(long millis) {
+    JsonObject endpoints = new JsonObject();
+    Samples all = new Samples();
+    for (Map.Entry<String, Samples> endpoint : samples.entrySet()) {
+      endpoints.put(endpoint.getKey(), endpoint.getValue().summary(millis));
+      all.addAll(endpoint.getValue());
+    }
+    JsonObject configuration = new JsonObject();
+    config.forEach(configuration::put);
+    return new JsonObject()
+      .put("label", config.get("label"))
+      .put("finished", Instant.now().toString())
+      .put("java", System.getProperty("java.version"))
+      .put("processors", Runtime.getRuntime().availableProcessors())
+      .put("config", configuration)
+      .put("total", all.summary(millis))
+      .put("endpoints", endpoints);
+  }
+
+  private static String encode(String value) {
+    try {
+      return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Latencies of the recorded requests of one endpoint, all kept for exact percentiles.
+   */
+  private static class Samples {
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+
+    private void add(long latency, boolean error) {
+      if (count == nanos.length) {
+        nanos = Arrays.copyOf(nanos, count * 2);
+      }
+      nanos[count++] = latency;
+      if (error) {
+        errors++;
+      }
+    }
+
+    private void addAll(Samples other) {
+      for (int i = 0; i < other.count; i++) {
+        add(other.nanos[i], false);
+      }
+      errors += other.errors;
+    }
+
+    private JsonObject summary(long millis) {
+      long[] sorted = Arrays.copyOf(nanos, count);
+      Arrays.sort(sorted);
+      return new JsonObject()
+        .put("requests", count)
+        .put("errors", errors)
+        .put("throughputPerSecond", count * 1000.0 / millis)
+        .put("p50Millis", percentile(sorted, 0.5))
+        .put("p95Millis", percentile(sorted, 0.95))
+        .put("p99Millis", percentile(sorted, 0.99))
+        .put("p999Millis", percentile(sorted, 0.999))
+        .put("maxMillis", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(quantile * sorted.length) - 1;
+      return sorted[Math.max(0, index)] / 1e6;
+    }
+  }
+}
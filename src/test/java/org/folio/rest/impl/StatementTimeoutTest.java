@@ -0,0 +1,71 @@
+package org.folio.rest.impl;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.asyncsql.AsyncSQLClient;
+import io.vertx.ext.sql.ResultSet;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.utils.StatementTimeout;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class StatementTimeoutTest extends TestBase {
+
+  private final Logger logger = LoggerFactory.getLogger(StatementTimeoutTest.class);
+
+  // the table name only selects the module argument, the queries do not touch a table
+  private static final String TIMED_TABLE = "statement_timeout_test";
+  private static final String UNTIMED_TABLE = "statement_timeout_test_none";
+
+  private AsyncSQLClient client;
+
+  @Before
+  public void setUp() {
+    MODULE_SPECIFIC_ARGS.put(StatementTimeout.PARAMETER + "." + TIMED_TABLE, "100");
+    MODULE_SPECIFIC_ARGS.put(StatementTimeout.PARAMETER + "." + UNTIMED_TABLE, "0");
+    client = PostgresClient.getInstance(StorageTestSuite.getVertx(), TENANT_HEADER.getValue()).getClient();
+  }
+
+  @After
+  public void tearDown() {
+    MODULE_SPECIFIC_ARGS.remove(StatementTimeout.PARAMETER + "." + TIMED_TABLE);
+    MODULE_SPECIFIC_ARGS.remove(StatementTimeout.PARAMETER + "." + UNTIMED_TABLE);
+  }
+
+  @Test
+  public void testSlowQueryIsCancelledAndTimeoutIsNotLeftOnConnection() throws Exception {
+    logger.info("--- mod-vendors-test: running a query longer than the statement timeout");
+    AsyncResult<ResultSet> slow = select(TIMED_TABLE, "SELECT pg_sleep(1)");
+    assertTrue(slow.failed());
+    assertThat(slow.cause().getMessage(), containsString("statement timeout"));
+
+    logger.info("--- mod-vendors-test: running a query within the statement timeout on the same pool");
+    AsyncResult<ResultSet> fast = select(TIMED_TABLE, "SELECT 1");
+    assertTrue(fast.succeeded());
+    assertEquals(Integer.valueOf(1), fast.result().getResults().get(0).getInteger(0));
+
+    // the pool hands out its idle connections in turn, so this sees every connection the queries above used
+    for (int i = 0; i < 10; i++) {
+      AsyncResult<ResultSet> show = select(UNTIMED_TABLE, "SHOW statement_timeout");
+      assertTrue(show.succeeded());
+      assertEquals("0", show.result().getResults().get(0).getString(0));
+    }
+  }
+
+  private AsyncResult<ResultSet> select(String table, String sql) throws Exception {
+    CompletableFuture<AsyncResult<ResultSet>> result = new CompletableFuture<>();
+    StatementTimeout.select(client, table, sql, null, null, result::complete);
+    return result.get(10, TimeUnit.SECONDS);
+  }
+}
@@ -32,7 +32,10 @@ import static org.folio.rest.utils.TenantApiTestUtil.prepareTenant;
 @RunWith(Suite.class)
 
 @Suite.SuiteClasses({
-  TenantSampleDataTest.class
+  TenantSampleDataTest.class,
+  CacheInvalidationTest.class,
+  SyntheticDataTest.class,
+  StatementTimeoutTest.class
 })
 
 public class StorageTestSuite {
@@ -0,0 +1,68 @@
+package org.folio.rest.impl;
+
+import io.restassured.http.Header;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.utils.SyntheticData;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.utils.TenantApiTestUtil.deleteTenant;
+import static org.folio.rest.utils.TenantApiTestUtil.prepareTenant;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Loads synthetic vendors into a tenant of its own. The load is skipped unless the number of vendors is given, e.g.
+ * {@code -DsyntheticVendors=100000} for scale tests; {@code -DsyntheticSeed} selects another data set.
+ */
+public class SyntheticDataTest extends TestBase {
+
+  private final Logger logger = LoggerFactory.getLogger(SyntheticDataTest.class);
+
+  private static final Header SYNTHETIC_TENANT_HEADER = new Header(OKAPI_HEADER_TENANT, "synthetic");
+  private static final String VENDORS_ENDPOINT = "/vendor-storage/vendors";
+  private static final String CONTACTS_ENDPOINT = "/vendor-storage/contacts";
+  private static final String CATEGORIES_ENDPOINT = "/vendor-storage/categories";
+
+  @Test
+  public void testSameSeedGeneratesSameRecords() {
+    SyntheticData data = new SyntheticData(7, 100, 50, 10);
+    SyntheticData same = new SyntheticData(7, 100, 50, 10);
+    SyntheticData other = new SyntheticData(8, 100, 50, 10);
+    for (int i : new int[] {0, 1, 99}) {
+      assertEquals(data.vendor(i), same.vendor(i));
+      assertEquals(data.contact(i), same.contact(i));
+      assertNotEquals(data.vendor(i), other.vendor(i));
+    }
+  }
+
+  @Test
+  public void testLoadSyntheticData() throws Exception {
+    assumeTrue("no -DsyntheticVendors", System.getProperty("syntheticVendors") != null);
+    int vendors = Integer.getInteger("syntheticVendors");
+    SyntheticData data = new SyntheticData(Long.getLong("syntheticSeed", 1L), vendors, vendors / 2, 50);
+    try {
+      prepareTenant(SYNTHETIC_TENANT_HEADER, false);
+      logger.info("--- mod-vendors-test: loading " + vendors + " synthetic vendors");
+      data.load(StorageTestSuite.getVertx(), SYNTHETIC_TENANT_HEADER.getValue()).get(10, TimeUnit.MINUTES);
+
+      verifyCollectionQuantity(VENDORS_ENDPOINT + "?limit=1", data.getVendors(), SYNTHETIC_TENANT_HEADER);
+      verifyCollectionQuantity(CONTACTS_ENDPOINT + "?limit=1", data.getContacts(), SYNTHETIC_TENANT_HEADER);
+      verifyCollectionQuantity(CATEGORIES_ENDPOINT + "?limit=1", data.getCategories(), SYNTHETIC_TENANT_HEADER);
+
+      int last = vendors - 1;
+      getData(VENDORS_ENDPOINT + "?query=code==\"" + data.vendor(last).getString("code") + "\"", SYNTHETIC_TENANT_HEADER)
+        .then()
+        .statusCode(200)
+        .body("total_records", equalTo(1))
+        .body("vendors[0].id", equalTo(data.vendorId(last)));
+    } finally {
+      deleteTenant(SYNTHETIC_TENANT_HEADER);
+    }
+  }
+}
@@ -6,6 +6,7 @@ import com.jayway.restassured.response.Header;
 import com.jayway.restassured.response.Response;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -17,13 +18,20 @@ import org.folio.rest.RestVerticle;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.PomReader;
 import org.folio.rest.tools.client.test.HttpClientMock2;
+import org.folio.rest.utils.ExportHelper;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 import static com.jayway.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
@@ -46,7 +54,8 @@ public class VendorTest {
   @Before
   public void before(TestContext context) {
     logger.info("--- mod-vendors-test: START ");
-    vertx = Vertx.vertx();
+    // as started by the launcher, the metrics factory also configures the compression of the HTTP server
+    vertx = Vertx.vertx(VendorsLauncher.options(new VertxOptions()));
 
     moduleName = PomReader.INSTANCE.getModuleName();
     moduleVersion = PomReader.INSTANCE.getVersion();
@@ -129,10 +138,150 @@ public class VendorTest {
         .statusCode(200)
         .body("total_records", equalTo(1));
 
+      logger.info("--- mod-vendors-test: Looking vendor up by code ... ");
+      getData("/vendor-storage/vendors?query=code==aq-gobi").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1))
+        .body("vendors[0].id", equalTo(dataSampleId));
+      getData("/vendor-storage/vendors?query=code==AQ").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(0));
+
+      logger.info("--- mod-vendors-test: Suggesting vendors ... ");
+      getData("/vendor-storage/vendors/suggest?prefix=aq-g").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("suggestions", hasSize(1))
+        .body("suggestions[0].id", equalTo(dataSampleId))
+        .body("suggestions[0].code", equalTo("AQ-GOBI"))
+        .body("suggestions[0].name", equalTo("GOBI"));
+      getData("/vendor-storage/vendors/suggest?prefix=gob").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("suggestions[0].id", equalTo(dataSampleId));
+      getData("/vendor-storage/vendors/suggest?prefix=xyz").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("suggestions", hasSize(0));
+
+      logger.info("--- mod-vendors-test: Searching vendors ... ");
+      getData("/vendor-storage/vendors?search=yankee pedd").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1))
+        .body("vendors[0].id", equalTo(dataSampleId));
+      getData("/vendor-storage/vendors?search=yankee&query=vendor_status==Inactive").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(0));
+      getData("/vendor-storage/vendors?search=yankee&query=cql.allRecords=1 sortBy name").then().log().ifValidationFails()
+        .statusCode(400);
+
+      logger.info("--- mod-vendors-test: Creating vendor with duplicate code ... ");
+      postData("/vendor-storage/vendors", new JSONObject(dataSample).put("code", "aq-gobi").toString()).then().log().ifValidationFails()
+        .statusCode(allOf(greaterThanOrEqualTo(400), lessThan(500)));
+
+      logger.info("--- mod-vendors-test: Verifying total records modes ... ");
+      getData("/vendor-storage/vendors?totalRecords=estimated").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
+      getData("/vendor-storage/vendors?totalRecords=none").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("vendors.size()", equalTo(1))
+        .body("$", not(hasKey("total_records")));
+
+      logger.info("--- mod-vendors-test: Verifying cursor paging ... ");
+      String next = getData("/vendor-storage/vendors?cursor=*&limit=1&query=cql.allRecords=1 sortBy name").then()
+        .log().ifValidationFails()
+        .statusCode(200)
+        .body("vendors[0].id", equalTo(dataSampleId))
+        .body("total_records", equalTo(1))
+        .extract().path("next");
+      getData("/vendor-storage/vendors?limit=1&query=cql.allRecords=1 sortBy name&cursor=" + next).then()
+        .log().ifValidationFails()
+        .statusCode(200)
+        .body("vendors.size()", equalTo(0))
+        .body("$", not(hasKey("next")))
+        .body("$", not(hasKey("total_records")));
+      getData("/vendor-storage/vendors?limit=1&cursor=" + next).then()
+        .log().ifValidationFails()
+        .statusCode(400);
+
+      logger.info("--- mod-vendors-test: Reading metrics ... ");
+      getData("/vendor-storage/metrics").then().log().ifValidationFails()
+        .statusCode(200)
+        .header("Content-Encoding", "gzip")
+        .body(containsString("mod_vendors_db_query_duration_seconds_count{tenant=\"" + TENANT_NAME + "\",table=\"vendor\",query=\"cursor_page\"}"))
+        .body(containsString("mod_vendors_cache_hits_total{cache=\"vendor\"}"));
+
+      logger.info("--- mod-vendors-test: Exporting vendors ... ");
+      String export = getData("/vendor-storage/vendors/export").then().log().ifValidationFails()
+        .statusCode(200)
+        .contentType("application/x-ndjson")
+        .header(ExportHelper.NEXT_CURSOR_HEADER, nullValue())
+        .extract().asString();
+      context.assertEquals(1, export.split("\n").length);
+      context.assertEquals(dataSampleId, new JSONObject(export.split("\n")[0]).getString("id"));
+      getData("/vendor-storage/vendors/export?cursor=bogus").then().log().ifValidationFails()
+        .statusCode(400);
+
+      logger.info("--- mod-vendors-test: Fetching vendors by ids ... ");
+      String ids = "{\"ids\":[\"" + dataSampleId + "\",\"" + UUID.randomUUID() + "\"]}";
+      postData("/vendor-storage/vendors/batch-get", ids).then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1))
+        .body("vendors[0].id", equalTo(dataSampleId));
+
+      logger.info("--- mod-vendors-test: Compression ... ");
+      given()
+        .header("X-Okapi-Tenant", TENANT_NAME)
+        .header("Content-Encoding", "gzip")
+        .contentType(ContentType.JSON)
+        .body(gzip(ids))
+        .post("/vendor-storage/vendors/batch-get")
+        .then().log().ifValidationFails()
+        .statusCode(200)
+        .body("vendors[0].id", equalTo(dataSampleId));
+      given()
+        .header("X-Okapi-Tenant", TENANT_NAME)
+        .header("Accept-Encoding", "identity")
+        .get("/vendor-storage/vendors?limit=0")
+        .then().log().ifValidationFails()
+        .statusCode(200)
+        .header("Content-Encoding", nullValue());
+
+      logger.info("--- mod-vendors-test: Creating and updating vendors in a batch ... ");
+      JSONObject batchUpdate = new JSONObject(dataSample).put("id", dataSampleId);
+      JSONObject batchCreate = new JSONObject(dataSample).put("code", "BATCH").put("name", "Batch vendor");
+      batchCreate.remove("id");
+      String batch = new JSONObject().put("vendors", new JSONArray().put(batchUpdate).put(batchCreate)).toString();
+      String batchId = postData("/vendor-storage/vendors/batch", batch).then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(2))
+        .body("results[0].id", equalTo(dataSampleId))
+        .body("results[0].status", equalTo("updated"))
+        .body("results[1].status", equalTo("created"))
+        .extract().path("results[1].id");
+      deleteData("/vendor-storage/vendors", batchId).then().log().ifValidationFails()
+        .statusCode(204);
+
       logger.info("--- mod-vendors-test: Fetching vendor with ID: "+ dataSampleId);
-      getDataById("/vendor-storage/vendors", dataSampleId).then().log().ifValidationFails()
+      String etag = getDataById("/vendor-storage/vendors", dataSampleId).then().log().ifValidationFails()
         .statusCode(200)
-        .body("id", equalTo(dataSampleId));
+        .header("ETag", startsWith("W/\""))
+        .body("id", equalTo(dataSampleId))
+        .extract().header("ETag");
+
+      logger.info("--- mod-vendors-test: Fetching unchanged vendor with If-None-Match ... ");
+      given()
+        .pathParam("id", dataSampleId)
+        .header("X-Okapi-Tenant", TENANT_NAME)
+        .header("If-None-Match", etag)
+        .get("/vendor-storage/vendors/{id}")
+        .then().log().ifValidationFails()
+        .statusCode(304);
+      given()
+        .pathParam("id", dataSampleId)
+        .header("X-Okapi-Tenant", TENANT_NAME)
+        .header("If-None-Match", etag.substring(2))
+        .get("/vendor-storage/vendors/{id}")
+        .then().log().ifValidationFails()
+        .statusCode(304);
 
       logger.info("--- mod-vendors-test: Editing vendor with ID: "+ dataSampleId);
       JSONObject catJSON = new JSONObject(dataSample);
@@ -145,11 +294,100 @@ public class VendorTest {
       logger.info("--- mod-vendors-test: Fetching vendor with ID: "+ dataSampleId);
       getDataById("/vendor-storage/vendors", dataSampleId).then()
         .statusCode(200).log().ifValidationFails()
+        .header("ETag", not(equalTo(etag)))
         .body("name", equalTo("Gift"));
+      getData("/vendor-storage/vendors/suggest?prefix=gif").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("suggestions[0].id", equalTo(dataSampleId));
+
+      logger.info("--- mod-vendors-test: Patching vendor with ID: "+ dataSampleId);
+      patchData("/vendor-storage/vendors", dataSampleId, "{\"name\":\"Patched\"}").then().log().ifValidationFails()
+        .statusCode(204);
+      getDataById("/vendor-storage/vendors", dataSampleId).then().log().ifValidationFails()
+        .statusCode(200)
+        .body("name", equalTo("Patched"))
+        .body("code", equalTo(catJSON.getString("code")));
+      patchData("/vendor-storage/vendors", dataSampleId, "{\"name\":null}").then().log().ifValidationFails()
+        .statusCode(422)
+        .body("errors.size()", equalTo(1))
+        .body("errors[0].parameters[0].key", equalTo("name"));
+
+      logger.info("--- mod-vendors-test: Fetching vendor with expanded contacts ... ");
+      String contactId = postData("/vendor-storage/contacts", getFile("contact.sample")).then().log().ifValidationFails()
+        .statusCode(201)
+        .extract().path("id");
+      JSONObject contacts = new JSONObject().put("contacts", new JSONArray().put(contactId).put(UUID.randomUUID().toString()));
+      patchData("/vendor-storage/vendors", dataSampleId, contacts.toString()).then().log().ifValidationFails()
+        .statusCode(204);
+      getData("/vendor-storage/vendors/" + dataSampleId + "?expand=contacts,categories").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("contacts", hasSize(2))
+        .body("expanded_contacts", hasSize(1))
+        .body("expanded_contacts[0].id", equalTo(contactId))
+        .body("expanded_contacts[0].last_name", equalTo("Fury"));
+      getData("/vendor-storage/vendors?query=id==" + dataSampleId + "&expand=contacts").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("vendors[0].expanded_contacts[0].id", equalTo(contactId));
+      getDataById("/vendor-storage/vendors", dataSampleId).then().log().ifValidationFails()
+        .statusCode(200)
+        .body("expanded_contacts", nullValue());
+
+      logger.info("--- mod-vendors-test: Fetching vendor with expanded categories ... ");
+      String categoryId = postData("/vendor-storage/categories", getFile("category.sample")).then().log().ifValidationFails()
+        .statusCode(201)
+        .extract().path("id");
+      // categories are referenced by id only, not by value
+      JSONObject categorized = new JSONObject().put("emails", new JSONArray().put(new JSONObject(getFile("email.sample"))
+        .put("categories", new JSONArray().put(categoryId).put("Accounting"))));
+      patchData("/vendor-storage/vendors", dataSampleId, categorized.toString()).then().log().ifValidationFails()
+        .statusCode(204);
+      getData("/vendor-storage/vendors/" + dataSampleId + "?expand=categories").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("expanded_categories", hasSize(1))
+        .body("expanded_categories[0].id", equalTo(categoryId))
+        .body("emails[0].categories", hasSize(2));
+      deleteData("/vendor-storage/categories", categoryId).then().log().ifValidationFails()
+        .statusCode(204);
+      deleteData("/vendor-storage/contacts", contactId).then().log().ifValidationFails()
+        .statusCode(204);
+
+      logger.info("--- mod-vendors-test: Filtering vendors on array properties ... ");
+      JSONObject arrays = new JSONObject()
+        .put("vendor_currencies", new JSONArray().put("USD"))
+        .put("accounts", new JSONArray().put(new JSONObject().put("name", "Main").put("account_no", "99999-10")))
+        .put("aliases", new JSONArray().put(new JSONObject().put("value", "GOBI Library Solutions")))
+        .put("emails", new JSONArray().put(new JSONObject().put("value", "Service@Gobi.com")));
+      patchData("/vendor-storage/vendors", dataSampleId, arrays.toString()).then().log().ifValidationFails()
+        .statusCode(204);
+      getData("/vendor-storage/vendors?query=accounts.account_no==99999-10").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1))
+        .body("vendors[0].id", equalTo(dataSampleId));
+      getData("/vendor-storage/vendors?query=vendor_currencies=usd and code==AQ-GOBI").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
+      getData("/vendor-storage/vendors?query=vendor_currencies==EUR").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(0));
+      // = on free text stays a word match ignoring case
+      getData("/vendor-storage/vendors?query=aliases.value=gobi").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
+      getData("/vendor-storage/vendors?query=aliases.value=library and vendor_currencies=usd").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
+      getData("/vendor-storage/vendors?query=emails.value=\"service@gobi.com\"").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
+      getData("/vendor-storage/vendors?query=accounts.account_no=99999").then().log().ifValidationFails()
+        .statusCode(200)
+        .body("total_records", equalTo(1));
 
       logger.info("--- mod-vendors-test: Deleting vendor with ID ... ");
       deleteData("/vendor-storage/vendors", dataSampleId).then().log().ifValidationFails()
         .statusCode(204);
+      getDataById("/vendor-storage/vendors", dataSampleId).then().log().ifValidationFails()
+        .statusCode(404);
 
     }
     catch (Exception e) {
@@ -179,6 +417,14 @@ public class VendorTest {
     return value;
   }
 
+  private byte[] gzip(String body) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+
   private Response getData(String endpoint) {
     return given()
       .header("X-Okapi-Tenant", TENANT_NAME)
@@ -212,6 +458,15 @@ public class VendorTest {
       .put(endpoint + "/{id}");
   }
 
+  private Response patchData(String endpoint, String id, String input) {
+    return given()
+      .pathParam("id", id)
+      .header("X-Okapi-Tenant", TENANT_NAME)
+      .contentType(ContentType.JSON)
+      .body(input)
+      .patch(endpoint + "/{id}");
+  }
+
   private Response deleteData(String endpoint, String id) {
     return given()
       .pathParam("id", id)
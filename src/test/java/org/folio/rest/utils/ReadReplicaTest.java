@@ -0,0 +1,99 @@
+package org.folio.rest.utils;
+
+import io.vertx.ext.asyncsql.AsyncSQLClient;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadReplicaTest {
+
+  private final AsyncSQLClient primary = client();
+  private final AsyncSQLClient replica = client();
+
+  /** the clients are only compared, never called */
+  private static AsyncSQLClient client() {
+    return (AsyncSQLClient) Proxy.newProxyInstance(AsyncSQLClient.class.getClassLoader(),
+      new Class<?>[] { AsyncSQLClient.class }, (proxy, method, args) -> {
+        if (method.getName().equals("equals")) {
+          return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode")) {
+          return System.identityHashCode(proxy);
+        }
+        throw new UnsupportedOperationException(method.getName());
+      });
+  }
+
+  private static Map<String, String> lsnHeader(String lsn) {
+    Map<String, String> okapiHeaders = new HashMap<>();
+    okapiHeaders.put("x-okapi-tenant", "diku");
+    okapiHeaders.put(ReadReplica.LSN_HEADER.toLowerCase(), lsn);
+    return okapiHeaders;
+  }
+
+  @Test
+  public void testParseLsn() {
+    assertEquals(0L, ReadReplica.parseLsn("0/0"));
+    assertEquals(0xB374D848L, ReadReplica.parseLsn("0/B374D848"));
+    assertEquals((0x16L << 32) | 0xB374D848L, ReadReplica.parseLsn("16/B374D848"));
+  }
+
+  @Test
+  public void testLsnOrderFollowsBothParts() {
+    assertTrue(ReadReplica.parseLsn("1/0") > ReadReplica.parseLsn("0/FFFFFFFF"));
+    assertTrue(ReadReplica.parseLsn("16/B374D849") > ReadReplica.parseLsn("16/B374D848"));
+    assertTrue(ReadReplica.parseLsn("A/1") > ReadReplica.parseLsn("9/FFFFFFFF"));
+  }
+
+  @Test
+  public void testMalformedLsn() {
+    for (String lsn : new String[] { "", "16B374D848", "16/", "/B374D848", "G/0", "16/B374D848/1" }) {
+      try {
+        ReadReplica.parseLsn(lsn);
+        fail("Expected IllegalArgumentException for " + lsn);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testReaderWithoutHeaderUsesReplica() {
+    long replayed = ReadReplica.parseLsn("16/B374D848");
+    assertSame(replica, ReadReplica.reader(primary, replica, replayed, Collections.emptyMap()));
+  }
+
+  @Test
+  public void testReaderWithReplayedHeaderUsesReplica() {
+    long replayed = ReadReplica.parseLsn("16/B374D848");
+    assertSame(replica, ReadReplica.reader(primary, replica, replayed, lsnHeader("16/B374D848")));
+    assertSame(replica, ReadReplica.reader(primary, replica, replayed, lsnHeader("15/FFFFFFFF")));
+  }
+
+  @Test
+  public void testReaderWithHeaderAboveReplayPositionUsesPrimary() {
+    long replayed = ReadReplica.parseLsn("16/B374D848");
+    assertSame(primary, ReadReplica.reader(primary, replica, replayed, lsnHeader("16/B374D849")));
+    assertSame(primary, ReadReplica.reader(primary, replica, replayed, lsnHeader("17/0")));
+  }
+
+  @Test
+  public void testReaderWithMalformedHeaderUsesPrimary() {
+    long replayed = ReadReplica.parseLsn("16/B374D848");
+    assertSame(primary, ReadReplica.reader(primary, replica, replayed, lsnHeader("not an lsn")));
+  }
+
+  @Test
+  public void testReaderWithUnavailableReplicaUsesPrimary() {
+    assertSame(primary, ReadReplica.reader(primary, replica, ReadReplica.UNKNOWN, Collections.emptyMap()));
+    assertSame(primary, ReadReplica.reader(primary, null, ReadReplica.parseLsn("16/B374D848"), Collections.emptyMap()));
+  }
+}
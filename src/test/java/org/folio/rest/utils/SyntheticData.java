@@ -0,0 +1,361 @@
+package org.folio.rest.utils;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import org.folio.rest.persist.PostgresClient;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Deterministic generator of categories, contacts and vendors for scale tests, and bulk loader of them into a
+ * tenant.
+ * <p>
+ * Every record depends only on the seed, its kind and its index, so the same seed gives the same records whatever
+ * subset or order they are generated in, and records can be generated one batch at a time. Vendors reference
+ * contacts and categories of the same seed. The sizes of the arrays follow the skew of real vendor records: most
+ * vendors have one or two addresses, accounts and contacts, a few have dozens.
+ */
+public class SyntheticData {
+  private static final Logger log = LoggerFactory.getLogger(SyntheticData.class);
+
+  static final int BATCH_SIZE = 500;
+
+  private static final String[] NAME_WORDS = {"Atlantic", "Baker", "Blackwell", "Book", "Casalini", "Coutts",
+    "Digital", "\u00c9ditions", "Gale", "Global", "Harrassowitz", "Ingram", "Kinokuniya", "Library", "Media", "M\u00fcller",
+    "Nordic", "Pacific", "Periodicals", "Press", "Scholarly", "Serials", "Taylor", "Universit\u00e9", "Wiley", "Zeitschriften"};
+  private static final String[] NAME_SUFFIXES = {"Inc.", "Ltd.", "GmbH", "S.A.", "Library Services", "Publishing",
+    "Distributors", "& Sons", "Books", "Subscription Agency"};
+  private static final String[] DESCRIPTION_WORDS = {"approval", "plans", "firm", "orders", "standing", "ebooks",
+    "print", "serials", "journals", "databases", "DDA", "shelf-ready", "cataloging", "music", "scores", "maps",
+    "media", "subscriptions", "rush", "fulfillment"};
+  private static final String[] FIRST_NAMES = {"Anna", "Bj\u00f6rn", "Carlos", "Dana", "Emeka", "Fran\u00e7ois", "Grace",
+    "Hiro", "Ines", "Jos\u00e9", "Kai", "Lena", "Mei", "Nora", "Omar", "Priya", "Sven", "Zo\u00eb"};
+  private static final String[] LAST_NAMES = {"Andersen", "Brown", "Chen", "Dubois", "Garc\u00eda", "Ivanova", "Jones",
+    "Kowalski", "M\u00fcller", "Nakamura", "O'Brien", "Rossi", "Schmidt", "Silva", "Smith", "Yilmaz"};
+  private static final String[] CITIES = {"Boston", "Chicago", "Contoocook", "Frankfurt", "Leipzig", "London",
+    "Madrid", "Paris", "S\u00e3o Paulo", "Tokyo", "Toronto", "Wiesbaden"};
+  private static final String[] COUNTRIES = {"USA", "USA", "USA", "CAN", "GBR", "DEU", "DEU", "FRA", "ESP", "BRA", "JPN"};
+  private static final String[] CURRENCIES = {"USD", "USD", "USD", "EUR", "EUR", "GBP", "CAD", "JPY"};
+  private static final String[] STATUSES = {"Active", "Active", "Active", "Active", "Active", "Active", "Active",
+    "Active", "Inactive", "Pending"};
+  private static final String[] PAYMENT_METHODS = {"EFT", "Cash", "Credit Card", "Bank Draft", "Physical Check"};
+  private static final String[] CATEGORY_WORDS = {"Customer Service", "Payments", "Returns", "Shipments", "Sales",
+    "Technical Support", "Claims", "Accounting", "Orders", "Licensing"};
+  private static final long EPOCH_MILLIS = 1514764800000L;
+
+  private final long seed;
+  private final int vendors;
+  private final int contacts;
+  private final int categories;
+
+  /**
+   * @param vendors    number of vendors, e.g. 100000
+   * @param contacts   number of contacts the vendors refer to
+   * @param categories number of categories the addresses, phone numbers, emails and urls refer to
+   */
+  public SyntheticData(long seed, int vendors, int contacts, int categories) {
+    this.seed = seed;
+    this.vendors = vendors;
+    this.contacts = contacts;
+    this.categories = categories;
+  }
+
+  public int getVendors() {
+    return vendors;
+  }
+
+  public int getContacts() {
+    return contacts;
+  }
+
+  public int getCategories() {
+    return categories;
+  }
+
+  public String categoryId(int index) {
+    return id("category", index);
+  }
+
+  public String contactId(int index) {
+    return id("contact", index);
+  }
+
+  public String vendorId(int index) {
+    return id("vendor", index);
+  }
+
+  public JsonObject category(int index) {
+    String value = CATEGORY_WORDS[index % CATEGORY_WORDS.length]
+      + (index < CATEGORY_WORDS.length ? "" : " " + (index / CATEGORY_WORDS.length + 1));
+    return new JsonObject()
+      .put("id", categoryId(index))
+      .put("value", value)
+      .put("metadata", metadata(random("category", index)));
+  }
+
+  public JsonObject contact(int index) {
+    SplittableRandom random = random("contact", index);
+    String firstName = pick(random, FIRST_NAMES);
+    String lastName = pick(random, LAST_NAMES);
+    String mailbox = (firstName.charAt(0) + lastName).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+    return new JsonObject()
+      .put("id", contactId(index))
+      .put("prefix", random.nextInt(4) == 0 ? "Dr." : "")
+      .put("first_name", firstName)
+      .put("last_name", lastName)
+      .put("language", "en-us")
+      .put("notes", sentence(random, 0, 12))
+      .put("phone_numbers", array(random, 1, 2, r -> phoneNumber(r)))
+      .put("emails", array(random, 1, 2, r -> email(r, mailbox + index)))
+      .put("addresses", array(random, 0, 1, r -> address(r)))
+      .put("urls", new JsonArray())
+      .put("categories", categoryIds(random, 2))
+      .put("metadata", metadata(random));
+  }
+
+  public JsonObject vendor(int index) {
+    SplittableRandom random = random("vendor", index);
+    String name = pick(random, NAME_WORDS) + (random.nextBoolean() ? " " + pick(random, NAME_WORDS) : "") + " "
+      + pick(random, NAME_SUFFIXES);
+    String code = (name.replaceAll("[^A-Za-z]", "").toUpperCase(Locale.ROOT) + "XXXX").substring(0, 4) + "-"
+      + Integer.toString(index, 36).toUpperCase(Locale.ROOT);
+    JsonObject vendor = new JsonObject()
+      .put("id", vendorId(index))
+      .put("name", name)
+      .put("code", code)
+      .put("description", sentence(random, 3, 30))
+      .put("vendor_status", pick(random, STATUSES))
+      .put("language", "en-us")
+      .put("erp_code", "G" + (10000 + random.nextInt(90000)) + "-" + (10000 + random.nextInt(90000)))
+      .put("payment_method", pick(random, PAYMENT_METHODS))
+      .put("access_provider", random.nextInt(4) == 0)
+      .put("governmental", random.nextInt(20) == 0)
+      .put("licensor", random.nextInt(4) == 0)
+      .put("material_supplier", random.nextInt(5) != 0)
+      .put("vendor_currencies", distinct(random, 1, 2, CURRENCIES))
+      .put("claiming_interval", 15 * random.nextInt(7))
+      .put("discount_percent", random.nextInt(25))
+      .put("expected_invoice_interval", 30)
+      .put("expected_receipt_interval", 15 * random.nextInt(5))
+      .put("liable_for_vat", random.nextInt(3) == 0)
+      .put("tax_id", String.valueOf(100000000 + random.nextInt(900000000)))
+      .put("aliases", array(random, 0, 3, r -> new JsonObject()
+        .put("value", pick(r, NAME_WORDS) + " " + pick(r, NAME_SUFFIXES))
+        .put("description", "former name")))
+      .put("addresses", array(random, 1, 6, r -> address(r)))
+      .put("phone_numbers", array(random, 1, 6, r -> phoneNumber(r)))
+      .put("emails", array(random, 1, 6, r -> email(r, code.toLowerCase(Locale.ROOT))))
+      .put("urls", array(random, 0, 3, r -> new JsonObject()
+        .put("value", "https://www." + code.toLowerCase(Locale.ROOT) + ".example.com/" + pick(r, DESCRIPTION_WORDS))
+        .put("language", "en-us")
+        .put("categories", categoryIds(r, 1))
+        .put("isPrimary", false)))
+      .put("contacts", references(random, 0, 5))
+      .put("agreements", array(random, 0, 2, r -> new JsonObject()
+        .put("name", pick(r, DESCRIPTION_WORDS) + " agreement")
+        .put("discount", r.nextInt(20))
+        .put("notes", sentence(r, 0, 10))))
+      .put("interfaces", array(random, 0, 3, r -> new JsonObject()
+        .put("name", pick(r, NAME_WORDS) + " portal")
+        .put("uri", "https://portal." + code.toLowerCase(Locale.ROOT) + ".example.com")
+        .put("available", r.nextBoolean())
+        .put("notes", sentence(r, 0, 8))))
+      .put("accounts", array(random, 0, 40, r -> new JsonObject()
+        .put("name", pick(r, DESCRIPTION_WORDS) + " " + pick(r, DESCRIPTION_WORDS))
+        .put("account_no", (10000 + r.nextInt(90000)) + "-" + r.nextInt(100))
+        .put("description", sentence(r, 2, 12))
+        .put("payment_method", pick(r, PAYMENT_METHODS))
+        .put("account_status", r.nextInt(10) == 0 ? "Inactive" : "Active")
+        .put("library_code", pick(r, NAME_WORDS).substring(0, 3).toUpperCase(Locale.ROOT))
+        .put("library_edi_code", String.valueOf(100000000 + r.nextInt(900000000)))))
+      .put("changelogs", array(random, 0, 25, r -> new JsonObject()
+        .put("description", sentence(r, 2, 15))
+        .put("timestamp", Instant.ofEpochMilli(EPOCH_MILLIS + (long) r.nextInt(1000000) * 60000).toString())))
+      .put("metadata", metadata(random));
+    if (random.nextInt(3) != 0) {
+      vendor.put("san_code", String.valueOf(1000000 + random.nextInt(9000000)));
+    }
+    return vendor;
+  }
+
+  /**
+   * Loads categories, contacts and vendors into the tenant with multi-row inserts of {@value #BATCH_SIZE} records,
+   * then analyzes the tables. The change notification triggers are disabled during the load, the tenant is new to
+   * the module's caches anyway.
+   */
+  public CompletableFuture<Void> load(Vertx vertx, String tenantId) {
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
+    String schema = PostgresClient.convertToPsqlStandard(tenantId);
+    long start = System.currentTimeMillis();
+    return execute(pgClient, triggers(schema, "DISABLE"))
+      .thenCompose(v -> insert(pgClient, schema + ".category", categories, this::category, 0))
+      .thenCompose(v -> insert(pgClient, schema + ".contact", contacts, this::contact, 0))
+      .thenCompose(v -> insert(pgClient, schema + ".vendor", vendors, this::vendor, 0))
+      .thenCompose(v -> execute(pgClient, triggers(schema, "ENABLE")))
+      .thenCompose(v -> execute(pgClient, String.format("ANALYZE %1$s.category; ANALYZE %1$s.contact; ANALYZE %1$s.vendor",
+        schema)))
+      .thenRun(() -> log.info(String.format("Loaded %d vendors, %d contacts and %d categories into %s in %d ms", vendors,
+        contacts, categories, tenantId, System.currentTimeMillis() - start)));
+  }
+
+  private CompletableFuture<Void> insert(PostgresClient pgClient, String table, int count, IntFunction<JsonObject> record,
+      int from) {
+
+    if (from >= count) {
+      return CompletableFuture.completedFuture(null);
+    }
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (_id, jsonb) VALUES ");
+    int to = Math.min(count, from + BATCH_SIZE);
+    for (int i = from; i < to; i++) {
+      JsonObject json = record.apply(i);
+      sql.append(i == from ? "" : ",").append("('").append(json.getString("id")).append("','")
+        .append(json.encode().replace("'", "''")).append("')");
+    }
+    return execute(pgClient, sql.toString()).thenCompose(v -> insert(pgClient, table, count, record, to));
+  }
+
+  private static CompletableFuture<Void> execute(PostgresClient pgClient, String sql) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    pgClient.execute(sql, reply -> {
+      if (reply.failed()) {
+        future.completeExceptionally(reply.cause());
+        return;
+      }
+      future.complete(null);
+    });
+    return future;
+  }
+
+  private static String triggers(String schema, String action) {
+    return String.format("ALTER TABLE %1$s.category %2$s TRIGGER notify_change; ALTER TABLE %1$s.contact %2$s TRIGGER notify_change;"
+      + " ALTER TABLE %1$s.vendor %2$s TRIGGER notify_change", schema, action);
+  }
+
+  private String id(String kind, int index) {
+    return UUID.nameUUIDFromBytes((seed + "/" + kind + "/" + index).getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  private SplittableRandom random(String kind, int index) {
+    return new SplittableRandom(seed * 31 + ((long) kind.hashCode() << 32) + index);
+  }
+
+  /**
+   * @return between min and max elements, smaller counts much more likely than larger ones
+   */
+  private static JsonArray array(SplittableRandom random, int min, int max, Function<SplittableRandom, Object> element) {
+    JsonArray array = new JsonArray();
+    int count = skewed(random, min, max);
+    for (int i = 0; i < count; i++) {
+      array.add(element.apply(random));
+    }
+    return array;
+  }
+
+  private static int skewed(SplittableRandom random, int min, int max) {
+    double uniform = random.nextDouble();
+    return min + (int) Math.floor(uniform * uniform * uniform * (max - min + 1));
+  }
+
+  private JsonArray references(SplittableRandom random, int min, int max) {
+    JsonArray ids = new JsonArray();
+    if (contacts == 0) {
+      return ids;
+    }
+    for (int i = skewed(random, min, max); i > 0; i--) {
+      String id = contactId(random.nextInt(contacts));
+      if (!ids.contains(id)) {
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+
+  private JsonArray categoryIds(SplittableRandom random, int max) {
+    JsonArray ids = new JsonArray();
+    if (categories == 0) {
+      return ids;
+    }
+    for (int i = random.nextInt(max + 1); i > 0; i--) {
+      String id = categoryId(random.nextInt(categories));
+      if (!ids.contains(id)) {
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+
+  private JsonObject address(SplittableRandom random) {
+    return new JsonObject()
+      .put("addressLine1", (1 + random.nextInt(9999)) + " " + pick(random, NAME_WORDS) + " Street")
+      .put("city", pick(random, CITIES))
+      .put("zipCode", String.format("%05d", random.nextInt(100000)))
+      .put("country", pick(random, COUNTRIES))
+      .put("categories", categoryIds(random, 3))
+      .put("language", "en")
+      .put("isPrimary", random.nextBoolean());
+  }
+
+  private JsonObject phoneNumber(SplittableRandom random) {
+    return new JsonObject()
+      .put("phone_number", String.format("1-%03d-%03d-%04d", 200 + random.nextInt(800), random.nextInt(1000),
+        random.nextInt(10000)))
+      .put("categories", categoryIds(random, 2))
+      .put("language", "en-us")
+      .put("isPrimary", random.nextBoolean());
+  }
+
+  private JsonObject email(SplittableRandom random, String mailbox) {
+    return new JsonObject()
+      .put("value", mailbox + "." + pick(random, DESCRIPTION_WORDS).toLowerCase(Locale.ROOT) + "@example.com")
+      .put("description", sentence(random, 0, 5))
+      .put("categories", categoryIds(random, 2))
+      .put("language", "en-us")
+      .put("isPrimary", random.nextBoolean());
+  }
+
+  private static JsonObject metadata(SplittableRandom random) {
+    String date = Instant.ofEpochMilli(EPOCH_MILLIS + (long) random.nextInt(1000000) * 60000).toString();
+    String user = new UUID(random.nextLong() & 0xffffffffffff0fffL | 0x4000L, random.nextLong() & 0x3fffffffffffffffL
+      | 0x8000000000000000L).toString();
+    return new JsonObject()
+      .put("createdDate", date)
+      .put("createdByUserId", user)
+      .put("updatedDate", date)
+      .put("updatedByUserId", user);
+  }
+
+  private static String sentence(SplittableRandom random, int minWords, int maxWords) {
+    List<String> words = new ArrayList<>();
+    for (int i = minWords + random.nextInt(maxWords - minWords + 1); i > 0; i--) {
+      words.add(pick(random, DESCRIPTION_WORDS));
+    }
+    return String.join(" ", words);
+  }
+
+  private static JsonArray distinct(SplittableRandom random, int min, int max, String[] values) {
+    JsonArray array = new JsonArray();
+    for (int i = min + random.nextInt(max - min + 1); i > 0; i--) {
+      String value = pick(random, values);
+      if (!array.contains(value)) {
+        array.add(value);
+      }
+    }
+    return array;
+  }
+
+  private static String pick(SplittableRandom random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}